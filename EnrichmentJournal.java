@@ -0,0 +1,373 @@
+// EnrichmentJournal.java
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Append-only record of the lookups a report run has done, kept next to the report as
+// "<report>.journal" until the report is complete. Each enriched movie is one line ("D", then its
+// JSON) and each downloaded poster is one line ("P", URL, file): the file is the thumbnail cache
+// entry when there is one, otherwise a copy in "<report>.journal.posters/". If the run dies
+// (timeout, crash, OMDb quota), the next run for the same report replays the journal and only
+// looks up what is not in it. The second line records the query, year and when the journal was
+// started: a journal written for another search, or older than maxAge (the detail cache TTL, so
+// a replayed record is never staler than a cached one), is discarded instead of replayed.
+//
+// Appends only encode the line into a buffer. A sync thread writes the buffer and fsyncs it every
+// syncRecords lines or syncInterval, whichever comes first, so the pipeline never waits for the
+// disk. A crash loses at most the last unsynced batch; a torn last line is dropped on replay. A
+// poster's copy is fsynced and moved into place before its line is written, and the poster is
+// published to this run's lookups only once both are on disk, so no "P" line (and no entry)
+// ever points at a missing or half-written file.
+final class EnrichmentJournal implements AutoCloseable {
+
+    private static final String HEADER = "# enrichment-journal v2";
+
+    // A poster line waiting for the sync thread; bytes is the copy to write first, or null when
+    // file is the thumbnail cache entry
+    private static final class PendingPoster {
+        final String url;
+        final Path file;
+        final byte[] bytes;
+
+        PendingPoster(String url, Path file, byte[] bytes) {
+            this.url = url;
+            this.file = file;
+            this.bytes = bytes;
+        }
+    }
+
+    private final Path file;
+    private final Path posterDir;
+    private final String search;
+    private final Duration maxAge;
+    private final int syncRecords;
+    private final Duration syncInterval;
+    private final Map<String, LatestMoviesToPdf.Movie> details = new ConcurrentHashMap<>();
+    private final Map<String, Path> posters = new ConcurrentHashMap<>();
+    private final Set<String> recordedPosters = ConcurrentHashMap.newKeySet();
+    private final FileChannel channel;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private List<PendingPoster> pendingPosters = new ArrayList<>();
+    private int pendingRecords;
+    private boolean closed;
+    private final Thread sync;
+
+    private EnrichmentJournal(Path file, String query, String year, Duration maxAge,
+                              int syncRecords, Duration syncInterval) throws IOException {
+        this.file = file;
+        this.posterDir = file.resolveSibling(file.getFileName() + ".posters");
+        this.search = "query=" + ReportIndex.normalize(query) + "\tyear=" + ReportIndex.normalize(year);
+        this.maxAge = maxAge;
+        this.syncRecords = Math.max(1, syncRecords);
+        this.syncInterval = syncInterval;
+        long valid = Files.exists(file) ? replay() : 0;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            // Drop a torn last line, so the next line does not run into it
+            channel.truncate(valid);
+            channel.position(valid);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (valid == 0) {
+            String started = "\tstarted=" + System.currentTimeMillis();
+            pending.writeBytes((HEADER + "\n" + search + started + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        sync = Thread.ofVirtual().name("journal-sync").start(this::runSync);
+    }
+
+    static Path sidecar(Path report) {
+        return report.resolveSibling(report.getFileName() + ".journal");
+    }
+
+    // Opens (and replays) the journal of a report for query and year, or returns null when it
+    // cannot be opened; a report is never failed for the sake of its journal.
+    static EnrichmentJournal open(Path report, String query, String year, Duration maxAge,
+                                  int syncRecords, Duration syncInterval) {
+        Path file = sidecar(report);
+        try {
+            EnrichmentJournal journal = new EnrichmentJournal(file, query, year, maxAge, syncRecords, syncInterval);
+            if (!journal.details.isEmpty() || !journal.posters.isEmpty()) {
+                System.out.println("[*] Journal: resuming from " + file.getFileName() + " ("
+                        + journal.details.size() + " details, " + journal.posters.size() + " posters)");
+            }
+            return journal;
+        } catch (IOException e) {
+            System.err.println("[!] Journal unavailable: " + file + " (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    // The enriched movie from an earlier run, or null
+    LatestMoviesToPdf.Movie details(String imdbID) {
+        LatestMoviesToPdf.Movie m = imdbID == null ? null : details.get(imdbID);
+        if (m != null) {
+            Metrics.current().count("journal.replayed.details");
+        }
+        return m;
+    }
+
+    // The poster bytes from an earlier run, or null (also when the referenced file is gone)
+    byte[] poster(String url) {
+        Path ref = url == null ? null : posters.get(url);
+        if (ref == null) {
+            return null;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(ref);
+            Metrics.current().count("journal.replayed.posters");
+            return bytes;
+        } catch (IOException e) {
+            posters.remove(url, ref);
+            return null;
+        }
+    }
+
+    void recordDetails(LatestMoviesToPdf.Movie m) {
+        if (m.imdbID == null || details.putIfAbsent(m.imdbID, m) != null) {
+            return;
+        }
+        long started = System.nanoTime();
+        append("D\t" + OmdbJson.MOVIE.toJson(m), null);
+        Metrics.current().time("journal.append", started);
+    }
+
+    // cached is where the bytes are already stored (the thumbnail cache), or null to keep a copy
+    void recordPoster(String url, byte[] bytes, Path cached) {
+        if (url == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        Path ref = (cached != null ? cached : posterDir.resolve(sha256(url))).toAbsolutePath();
+        if (!posters.containsKey(url) && recordedPosters.add(url)) {
+            append("P\t" + url + "\t" + ref, new PendingPoster(url, ref, cached == null ? bytes : null));
+        }
+        Metrics.current().time("journal.append", started);
+    }
+
+    private void append(String line, PendingPoster poster) {
+        byte[] encoded = (line.replace('\n', ' ') + "\n").getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (poster != null) {
+                pendingPosters.add(poster);
+            }
+            pending.writeBytes(encoded);
+            if (++pendingRecords >= syncRecords) {
+                batchReady.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runSync() {
+        try {
+            boolean last;
+            do {
+                ByteArrayOutputStream batch;
+                List<PendingPoster> batchPosters;
+                lock.lock();
+                try {
+                    long wait = syncInterval.toNanos();
+                    while (!closed && pendingRecords < syncRecords && wait > 0) {
+                        wait = batchReady.awaitNanos(wait);
+                    }
+                    batch = pending;
+                    batchPosters = pendingPosters;
+                    last = closed;
+                    pending = new ByteArrayOutputStream();
+                    pendingPosters = new ArrayList<>();
+                    pendingRecords = 0;
+                } finally {
+                    lock.unlock();
+                }
+                if (batch.size() > 0) {
+                    write(batch, batchPosters);
+                }
+            } while (!last);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            lock.lock();
+            try {
+                closed = true;
+            } finally {
+                lock.unlock();
+            }
+            System.err.println("[!] Journal write failed, journaling stopped: " + e.getMessage());
+        }
+    }
+
+    private void write(ByteArrayOutputStream batch, List<PendingPoster> batchPosters) throws IOException {
+        long started = System.nanoTime();
+        for (PendingPoster p : batchPosters) {
+            if (p.bytes != null) {
+                writeCopy(p.file, p.bytes);
+            }
+        }
+        ByteBuffer buf = ByteBuffer.wrap(batch.toByteArray());
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        // Data only: the file's metadata (mtime) is not needed to replay it
+        channel.force(false);
+        for (PendingPoster p : batchPosters) {
+            posters.putIfAbsent(p.url, p.file);
+        }
+        Metrics.current().time("journal.sync", started);
+    }
+
+    // Written to a temporary file, fsynced and moved into place, so the name only ever holds a whole copy
+    private void writeCopy(Path file, byte[] bytes) throws IOException {
+        Files.createDirectories(posterDir);
+        Path tmp = Files.createTempFile(posterDir, "poster-", ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer buf = ByteBuffer.wrap(bytes);
+                while (buf.hasRemaining()) {
+                    out.write(buf);
+                }
+                out.force(true);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // Writes and syncs what is pending, then closes the journal; the file stays for a later run.
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            batchReady.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            sync.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("[!] Journal close failed: " + e.getMessage());
+        }
+    }
+
+    // The report is complete: the journal and its poster copies are no longer needed.
+    void delete() {
+        close();
+        try {
+            Files.deleteIfExists(file);
+            if (Files.isDirectory(posterDir)) {
+                try (DirectoryStream<Path> dir = Files.newDirectoryStream(posterDir)) {
+                    for (Path p : dir) {
+                        Files.deleteIfExists(p);
+                    }
+                }
+                Files.deleteIfExists(posterDir);
+            }
+        } catch (IOException e) {
+            System.err.println("[!] Journal cleanup failed: " + e.getMessage());
+        }
+    }
+
+    // Loads every complete line; returns the length of the file up to the last one.
+    private long replay() throws IOException {
+        byte[] all = Files.readAllBytes(file);
+        int end = all.length;
+        while (end > 0 && all[end - 1] != '\n') {
+            end--;
+        }
+        String[] lines = new String(all, 0, end, StandardCharsets.UTF_8).split("\n");
+        if (end == 0 || !HEADER.equals(lines[0]) || lines.length < 2) {
+            if (end > 0) {
+                System.out.println("[!] Journal: " + file.getFileName() + " is not a journal, starting over");
+            }
+            return 0;
+        }
+        int started = lines[1].lastIndexOf("\tstarted=");
+        if (started < 0 || !search.equals(lines[1].substring(0, started))) {
+            System.out.println("[*] Journal: " + file.getFileName() + " is for another search, starting over");
+            return 0;
+        }
+        long age;
+        try {
+            age = System.currentTimeMillis() - Long.parseLong(lines[1].substring(started + "\tstarted=".length()));
+        } catch (NumberFormatException e) {
+            System.out.println("[!] Journal: " + file.getFileName() + " is not a journal, starting over");
+            return 0;
+        }
+        if (age > maxAge.toMillis()) {
+            System.out.println("[*] Journal: " + file.getFileName() + " is older than " + maxAge.toMinutes() + " minutes, starting over");
+            return 0;
+        }
+        int skipped = 0;
+        for (int i = 2; i < lines.length; i++) {
+            String[] f = lines[i].split("\t", 3);
+            try {
+                if (f[0].equals("D") && f.length == 2) {
+                    LatestMoviesToPdf.Movie m = OmdbJson.MOVIE.fromJson(f[1]);
+                    if (m != null && m.imdbID != null) {
+                        details.put(m.imdbID, m);
+                        continue;
+                    }
+                } else if (f[0].equals("P") && f.length == 3) {
+                    posters.put(f[1], Path.of(f[2]));
+                    continue;
+                }
+            } catch (IOException | RuntimeException e) {
+                // Corrupt line: counted below
+            }
+            skipped++;
+        }
+        if (skipped > 0) {
+            System.out.println("[!] Journal: skipped " + skipped + " unreadable lines in " + file.getFileName());
+        }
+        return end;
+    }
+
+    private static String sha256(String s) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,16 +1,21 @@
 // LatestMoviesApp.java
 import javafx.application.Application;
+import javafx.beans.binding.Bindings;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.io.FileInputStream;
 import java.nio.file.Path;
 import java.time.Year;
-import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class LatestMoviesApp extends Application {
 
@@ -18,8 +23,16 @@ public class LatestMoviesApp extends Application {
     private TextField yearField;
     private TextField outputField;
     private TextArea logArea;
+    private VBox jobsBox;
     private String apiKey;
 
+    // Generations run one after another off the FX thread; the UI only queues and observes them
+    private final ExecutorService generations = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "report-generation");
+        t.setDaemon(true);
+        return t;
+    });
+
     @Override
     public void start(Stage stage) {
         // Load API key
@@ -27,6 +40,7 @@ public class LatestMoviesApp extends Application {
             Properties props = new Properties();
             props.load(new FileInputStream(".env"));  // Or config.properties
             apiKey = props.getProperty("omdb.api.key");
+            LatestMoviesService.configure(props);
         } catch (Exception e) {
             showError("Could not load .env file with omdb.api.key");
             return;
@@ -45,22 +59,28 @@ public class LatestMoviesApp extends Application {
         outputField.setPromptText("Output PDF filename");
 
         Button generateBtn = new Button("Generate PDF");
-        generateBtn.setOnAction(e -> runGeneration());
+        generateBtn.setOnAction(e -> queueGeneration());
+
+        jobsBox = new VBox(6);
+        ScrollPane jobsPane = new ScrollPane(jobsBox);
+        jobsPane.setFitToWidth(true);
+        jobsPane.setPrefViewportHeight(120);
 
         logArea = new TextArea();
         logArea.setEditable(false);
-        logArea.setPrefRowCount(12);
+        logArea.setPrefRowCount(8);
 
-        VBox root = new VBox(10, title, queryField, yearField, outputField, generateBtn, logArea);
+        VBox root = new VBox(10, title, queryField, yearField, outputField, generateBtn, jobsPane, logArea);
         root.setPadding(new Insets(15));
 
-        Scene scene = new Scene(root, 500, 400);
+        Scene scene = new Scene(root, 500, 520);
         stage.setScene(scene);
         stage.setTitle("OMDb → PDF Generator");
+        stage.setOnCloseRequest(e -> generations.shutdownNow());
         stage.show();
     }
 
-    private void runGeneration() {
+    private void queueGeneration() {
         String query = queryField.getText().trim();
         String year = yearField.getText().trim().isEmpty() ? String.valueOf(Year.now().getValue()) : yearField.getText().trim();
         String outFile = outputField.getText().trim();
@@ -70,19 +90,68 @@ public class LatestMoviesApp extends Application {
             return;
         }
 
-        appendLog("[*] Fetching movies for: " + query + " (" + year + ")");
-        try {
-            List<LatestMoviesService.Movie> movies = LatestMoviesService.fetchMovies(apiKey, query, year);
-            if (movies.isEmpty()) {
-                appendLog("[!] No movies found.");
-                return;
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws Exception {
+                updateMessage("Searching...");
+                return LatestMoviesService.generateReport(apiKey, query, year, outFile, new LatestMoviesToPdf.ProgressListener() {
+                    private volatile int expected;
+
+                    @Override
+                    public void expected(int titles) {
+                        expected = titles;
+                        updateProgress(0, Math.max(1, titles));
+                    }
+
+                    @Override
+                    public void rendered(int count, LatestMoviesToPdf.Movie movie) {
+                        updateProgress(count, Math.max(count, expected));
+                        updateMessage(count + "/" + Math.max(count, expected) + "  " + movie.Title);
+                    }
+                });
             }
-            LatestMoviesService.createPdf(outFile, movies, query, year);
-            appendLog("[✔] PDF created: " + Path.of(outFile).toAbsolutePath());
-        } catch (Exception ex) {
+        };
+
+        Label name = new Label(query + " (" + year + ") → " + outFile);
+        ProgressBar bar = new ProgressBar(0);
+        bar.setMaxWidth(Double.MAX_VALUE);
+        bar.progressProperty().bind(task.progressProperty());
+        Label status = new Label();
+        status.textProperty().bind(Bindings.when(task.messageProperty().isEmpty())
+                .then("Queued").otherwise(task.messageProperty()));
+        Button cancel = new Button("Cancel");
+        cancel.setOnAction(e -> task.cancel());
+        HBox.setHgrow(bar, Priority.ALWAYS);
+        jobsBox.getChildren().add(new VBox(2, name, new HBox(6, bar, cancel), status));
+
+        task.setOnSucceeded(e -> {
+            cancel.setDisable(true);
+            status.textProperty().unbind();
+            if (task.getValue() == 0) {
+                status.setText("No movies found");
+                appendLog("[!] No movies found for: " + query + " (" + year + ")");
+            } else {
+                status.setText("Done: " + task.getValue() + " movies");
+                appendLog("[✔] PDF created: " + Path.of(outFile).toAbsolutePath() + " (" + task.getValue() + " movies)");
+            }
+        });
+        task.setOnCancelled(e -> {
+            cancel.setDisable(true);
+            status.textProperty().unbind();
+            status.setText("Cancelled");
+            appendLog("[!] Cancelled: " + outFile);
+        });
+        task.setOnFailed(e -> {
+            cancel.setDisable(true);
+            status.textProperty().unbind();
+            status.setText("Failed");
+            Throwable ex = task.getException();
             ex.printStackTrace();
             showError("Error: " + ex.getMessage());
-        }
+        });
+
+        appendLog("[*] Queued: " + query + " (" + year + ") → " + outFile);
+        generations.submit(task);
     }
 
     private void appendLog(String msg) {
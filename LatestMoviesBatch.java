@@ -0,0 +1,161 @@
+// LatestMoviesBatch.java
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Renders many reports in one JVM. Each manifest line is "query | year | output.pdf" (year may be
+// left empty; blank lines and lines starting with # are skipped). All reports share the HTTP client,
+// rate limiter, response and thumbnail caches and font programs configured in LatestMoviesToPdf,
+// and run batch.parallelism at a time (default: one per core).
+//
+// Usage: java LatestMoviesBatch manifest.txt [summary.csv]
+public class LatestMoviesBatch {
+
+    static final class Entry {
+        final String query;
+        final String year;
+        final String out;
+
+        Entry(String query, String year, String out) {
+            this.query = query;
+            this.year = year;
+            this.out = out;
+        }
+    }
+
+    static final class Result {
+        final Entry entry;
+        final int titles;
+        final long millis;
+        final String error;
+
+        Result(Entry entry, int titles, long millis, String error) {
+            this.entry = entry;
+            this.titles = titles;
+            this.millis = millis;
+            this.error = error;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: LatestMoviesBatch <manifest> [summary.csv]");
+            System.exit(2);
+        }
+        try {
+            Properties props = LatestMoviesToPdf.loadConfig();
+            String apiKey = props.getProperty("omdb.api.key");
+            LatestMoviesToPdf.configure(props);
+            if (!LatestMoviesToPdf.offline() && (apiKey == null || apiKey.isBlank())) {
+                System.err.println("API key not found in config.properties (key=omdb.api.key)");
+                System.exit(2);
+            }
+            int parallelism = Integer.parseInt(props.getProperty("batch.parallelism",
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+            List<Entry> entries = readManifest(Path.of(args[0]));
+            Path summary = Path.of(args.length >= 2 ? args[1] : "batch-summary.csv");
+            System.out.println("[*] Batch: " + entries.size() + " reports, " + parallelism + " at a time");
+
+            Metrics metrics = LatestMoviesToPdf.beginMetrics("batch:" + args[0]);
+            long started = System.nanoTime();
+            List<Result> results = run(apiKey, entries, parallelism);
+            long total = (System.nanoTime() - started) / 1_000_000;
+
+            writeSummary(summary, results);
+            long failed = results.stream().filter(r -> r.error != null).count();
+            System.out.println("[*] Batch finished in " + total + " ms, " + failed + " failed");
+            LatestMoviesToPdf.printStats();
+            LatestMoviesToPdf.endMetrics(metrics);
+            System.out.println("[*] Summary written: " + summary);
+            if (failed > 0) {
+                System.exit(1);
+            }
+        } catch (Exception e) {
+            System.err.println("[!] Error: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    static List<Result> run(String apiKey, List<Entry> entries, int parallelism) throws InterruptedException {
+        List<Future<Result>> futures = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            for (Entry e : entries) {
+                futures.add(pool.submit(() -> render(apiKey, e)));
+            }
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> f : futures) {
+                try {
+                    results.add(f.get());
+                } catch (ExecutionException ex) {
+                    throw new IllegalStateException(ex.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Result render(String apiKey, Entry e) {
+        long started = System.nanoTime();
+        try {
+            int titles = LatestMoviesToPdf.deltaReports()
+                    ? LatestMoviesToPdf.generateDeltaReport(apiKey, e.query, e.year, e.out, LatestMoviesToPdf.ProgressListener.NONE)
+                    : LatestMoviesToPdf.generateReport(apiKey, e.query, e.year, e.out);
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            System.out.println("[*] " + e.out + ": " + titles + " movies in " + millis + " ms");
+            return new Result(e, titles, millis, null);
+        } catch (Exception ex) {
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            System.err.println("[!] " + e.out + " failed: " + ex.getMessage());
+            return new Result(e, 0, millis, String.valueOf(ex.getMessage()));
+        }
+    }
+
+    static List<Entry> readManifest(Path manifest) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        int lineNo = 0;
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            lineNo++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\|", -1);
+            if (parts.length != 3 || parts[0].isBlank() || parts[2].isBlank()) {
+                throw new IOException("Manifest line " + lineNo + ": expected 'query | year | output.pdf'");
+            }
+            entries.add(new Entry(parts[0].trim(), parts[1].trim(), parts[2].trim()));
+        }
+        return entries;
+    }
+
+    private static void writeSummary(Path summary, List<Result> results) throws IOException {
+        try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(summary, StandardCharsets.UTF_8))) {
+            w.println("query,year,output,titles,millis,status,error");
+            for (Result r : results) {
+                w.println(csv(r.entry.query) + "," + csv(r.entry.year) + "," + csv(r.entry.out) + ","
+                        + r.titles + "," + r.millis + "," + (r.error == null ? "ok" : "failed") + "," + csv(r.error));
+            }
+        }
+    }
+
+    private static String csv(String s) {
+        if (s == null) {
+            return "";
+        }
+        return s.contains(",") || s.contains("\"") || s.contains("\n") ? "\"" + s.replace("\"", "\"\"") + "\"" : s;
+    }
+}
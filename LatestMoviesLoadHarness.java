@@ -0,0 +1,327 @@
+// LatestMoviesLoadHarness.java
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// End-to-end load harness for the whole search -> details -> posters -> PDF pipeline. Starts a
+// stub OMDb and a stub poster host on loopback (two hosts, as in production), with a response
+// latency of latency ms +-50% and a share of responses failing with 503, then generates reports
+// against them and prints titles/sec. Every report searches its own query, so nothing is served
+// from another report's lookups; a warm-up report is run first and not counted.
+//
+// The engine runs with its defaults except that the caches live in a temporary directory and the
+// rate limiter is opened up for a local server; a properties file overrides any of that (e.g.
+// limiter.rate=10 to see the production quota, pdf.render.threads, pdf.profile).
+//
+// Usage: java LatestMoviesLoadHarness [titles per report=300] [reports=4] [concurrent reports=1]
+//                                     [latency ms=50] [error rate=0.02] [properties file]
+//   e.g. java LatestMoviesLoadHarness 1000 8 2 100 0.05
+public class LatestMoviesLoadHarness {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int POSTER_IMAGES = 8;
+
+    public static void main(String[] args) throws Exception {
+        int titles = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int reports = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int latencyMs = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        double errorRate = args.length > 4 ? Double.parseDouble(args[4]) : 0.02;
+
+        Path work = Files.createTempDirectory("load-harness-");
+        StubOmdb stub = new StubOmdb(titles, latencyMs, errorRate);
+        try {
+            Properties props = stubConfig(stub, work);
+            if (args.length > 5) {
+                try (FileInputStream in = new FileInputStream(args[5])) {
+                    props.load(in);
+                }
+            }
+            LatestMoviesToPdf.configure(props);
+
+            System.out.println("[*] Stub OMDb " + stub.omdbUrl() + ", posters " + stub.posterUrl() + ": "
+                    + latencyMs + " ms +-50%, " + errorRate * 100 + "% errors");
+            System.out.println("[*] " + reports + " reports of " + titles + " titles, " + concurrency + " at a time");
+
+            LatestMoviesToPdf.generateReport("load", "warmup", null, work.resolve("warmup.pdf").toString());
+            stub.resetCounts();
+
+            Metrics.Histogram latency = new Metrics.Histogram();
+            LongAdder rendered = new LongAdder();
+            AtomicInteger failed = new AtomicInteger();
+            Metrics metrics = LatestMoviesToPdf.beginMetrics("load-harness");
+            long started = System.nanoTime();
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, concurrency));
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int r = 0; r < reports; r++) {
+                    String query = "load " + r;
+                    Path out = work.resolve("report-" + r + ".pdf");
+                    futures.add(pool.submit(() -> {
+                        long begun = System.nanoTime();
+                        try {
+                            rendered.add(LatestMoviesToPdf.generateReport("load", query, null, out.toString()));
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            System.err.println("[!] Report '" + query + "' failed: " + e.getMessage());
+                        }
+                        latency.record(System.nanoTime() - begun);
+                        return null;
+                    }));
+                }
+                for (Future<?> f : futures) {
+                    f.get();
+                }
+            } finally {
+                pool.shutdown();
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            LatestMoviesToPdf.endMetrics(metrics);
+
+            System.out.println("[*] Stub: " + stub.requests.sum() + " requests, " + stub.errors.sum() + " errors injected");
+            System.out.println("[*] Report ms: p50 " + ms(latency.percentile(0.50)) + ", p95 " + ms(latency.percentile(0.95))
+                    + ", max " + ms(latency.max()) + (failed.get() > 0 ? " (" + failed.get() + " failed)" : ""));
+            System.out.println(String.format(Locale.ROOT, "[*] %d titles in %.2f s: %.1f titles/s, %.2f reports/s",
+                    rendered.sum(), seconds, rendered.sum() / seconds, (reports - failed.get()) / seconds));
+        } finally {
+            stub.stop();
+            deleteTree(work);
+        }
+    }
+
+    private static String ms(long micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+
+    // The engine configured against stub, with its caches under work and the rate limiter opened
+    // up for a local server
+    static Properties stubConfig(StubOmdb stub, Path work) {
+        Properties props = new Properties();
+        props.setProperty("omdb.url", stub.omdbUrl());
+        props.setProperty("cache.dir", work.resolve("omdb-cache").toString());
+        props.setProperty("poster.cache.dir", work.resolve("poster-cache").toString());
+        props.setProperty("search.max.pages", String.valueOf((stub.titles + PAGE_SIZE - 1) / PAGE_SIZE));
+        props.setProperty("limiter.rate", "1000");
+        props.setProperty("limiter.burst", "100");
+        props.setProperty("limiter.initial.concurrency", "16");
+        props.setProperty("limiter.max.concurrency", "64");
+        return props;
+    }
+
+    static void deleteTree(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    // OMDb's search (?s=&page=) and detail (?i=) endpoints, plus a poster host. Every query has
+    // titles results; a title's imdbID encodes the query's number and the title's index, so
+    // details and posters need no state beyond the query numbers.
+    static final class StubOmdb {
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        private final int titles;
+        private final int latencyMs;
+        private final double errorRate;
+        private final byte[][] posters = new byte[POSTER_IMAGES][];
+        private final Map<String, Integer> queries = new ConcurrentHashMap<>();
+        private final AtomicInteger nextQuery = new AtomicInteger();
+        private final HttpServer omdb;
+        private final HttpServer images;
+
+        StubOmdb(int titles, int latencyMs, double errorRate) throws IOException {
+            this.titles = titles;
+            this.latencyMs = latencyMs;
+            this.errorRate = errorRate;
+            for (int i = 0; i < posters.length; i++) {
+                posters[i] = poster(i);
+            }
+            omdb = start(this::omdb);
+            images = start(this::poster);
+        }
+
+        String omdbUrl() {
+            return "http://127.0.0.1:" + omdb.getAddress().getPort() + "/";
+        }
+
+        String posterUrl() {
+            return "http://127.0.0.1:" + images.getAddress().getPort() + "/";
+        }
+
+        void resetCounts() {
+            requests.reset();
+            errors.reset();
+        }
+
+        void stop() {
+            omdb.stop(0);
+            images.stop(0);
+        }
+
+        private interface Handler {
+            void handle(HttpExchange ex) throws IOException;
+        }
+
+        private HttpServer start(Handler handler) throws IOException {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/", ex -> {
+                try (ex) {
+                    requests.increment();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    if (latencyMs > 0) {
+                        Thread.sleep(latencyMs / 2 + random.nextInt(latencyMs + 1));
+                    }
+                    if (random.nextDouble() < errorRate) {
+                        errors.increment();
+                        ex.sendResponseHeaders(503, -1);
+                        return;
+                    }
+                    handler.handle(ex);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            server.start();
+            return server;
+        }
+
+        private void omdb(HttpExchange ex) throws IOException {
+            Map<String, String> q = query(ex.getRequestURI().getRawQuery());
+            String body;
+            if (q.containsKey("i")) {
+                body = details(q.get("i"));
+            } else {
+                int query = queries.computeIfAbsent(q.getOrDefault("s", ""), k -> nextQuery.getAndIncrement());
+                int page = Integer.parseInt(q.getOrDefault("page", "1"));
+                body = search(query, page);
+            }
+            send(ex, "application/json", body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void poster(HttpExchange ex) throws IOException {
+            // /<imdbID>.jpg
+            String path = ex.getRequestURI().getPath();
+            int title = parseTitle(path.substring(path.lastIndexOf('/') + 1).replace(".jpg", ""));
+            if (title < 0) {
+                ex.sendResponseHeaders(404, -1);
+                return;
+            }
+            send(ex, "image/jpeg", posters[title % posters.length]);
+        }
+
+        private String search(int query, int page) {
+            int from = (page - 1) * PAGE_SIZE;
+            if (from >= titles) {
+                return "{\"Response\":\"False\",\"Error\":\"Movie not found!\"}";
+            }
+            StringBuilder json = new StringBuilder("{\"Search\":[");
+            for (int i = from; i < Math.min(titles, from + PAGE_SIZE); i++) {
+                if (i > from) {
+                    json.append(',');
+                }
+                String id = imdbID(query, i);
+                json.append("{\"Title\":\"Load Test Movie ").append(i)
+                        .append("\",\"Year\":\"").append(1980 + i % 45)
+                        .append("\",\"imdbID\":\"").append(id)
+                        .append("\",\"Type\":\"movie\",\"Poster\":\"").append(posterUrl()).append(id).append(".jpg\"}");
+            }
+            return json.append("],\"totalResults\":\"").append(titles).append("\",\"Response\":\"True\"}").toString();
+        }
+
+        private String details(String id) {
+            int title = parseTitle(id);
+            if (title < 0) {
+                return "{\"Response\":\"False\",\"Error\":\"Incorrect IMDb ID.\"}";
+            }
+            return "{\"Title\":\"Load Test Movie " + title + "\",\"Year\":\"" + (1980 + title % 45) + "\",\"Rated\":\"PG-13\","
+                    + "\"Released\":\"01 Jan 2000\",\"Runtime\":\"" + (80 + title % 70) + " min\","
+                    + "\"Genre\":\"Action, Adventure, Drama\",\"Director\":\"Some Director\",\"Writer\":\"Some Writer\","
+                    + "\"Actors\":\"Actor One, Actor Two, Actor Three\",\"Plot\":\"A plot of about the length OMDb sends "
+                    + "for a short plot, which the engine skips without decoding it.\",\"Language\":\"English, French\","
+                    + "\"Country\":\"United States\",\"Awards\":\"N/A\",\"Poster\":\"" + posterUrl() + id + ".jpg\","
+                    + "\"Ratings\":[{\"Source\":\"Internet Movie Database\",\"Value\":\"" + (1 + title % 90 / 10.0) + "/10\"}],"
+                    + "\"Metascore\":\"N/A\",\"imdbRating\":\"" + (1 + title % 90 / 10.0) + "\",\"imdbVotes\":\"1,234\","
+                    + "\"imdbID\":\"" + id + "\",\"Type\":\"movie\",\"Response\":\"True\"}";
+        }
+
+        // tt + 3 digits of query + 6 digits of title
+        private static String imdbID(int query, int title) {
+            return String.format(Locale.ROOT, "tt%03d%06d", query % 1000, title);
+        }
+
+        private static int parseTitle(String id) {
+            if (id == null || !id.matches("tt\\d{9}")) {
+                return -1;
+            }
+            return Integer.parseInt(id.substring(5));
+        }
+
+        private static Map<String, String> query(String raw) {
+            Map<String, String> params = new HashMap<>();
+            if (raw != null) {
+                for (String pair : raw.split("&")) {
+                    int eq = pair.indexOf('=');
+                    if (eq > 0) {
+                        params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                                URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            return params;
+        }
+
+        private static void send(HttpExchange ex, String type, byte[] body) throws IOException {
+            ex.getResponseHeaders().set("Content-Type", type);
+            ex.sendResponseHeaders(200, body.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+        }
+
+        // A 300x450 JPEG, the size of an OMDb poster
+        private static byte[] poster(int i) throws IOException {
+            BufferedImage img = new BufferedImage(300, 450, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = img.createGraphics();
+            g.setColor(Color.getHSBColor(i / (float) POSTER_IMAGES, 0.6f, 0.8f));
+            g.fillRect(0, 0, 300, 450);
+            g.setColor(Color.WHITE);
+            g.fillOval(50, 100, 200, 200);
+            g.dispose();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            ImageIO.write(img, "jpg", bos);
+            return bos.toByteArray();
+        }
+    }
+}
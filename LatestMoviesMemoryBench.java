@@ -0,0 +1,95 @@
+// LatestMoviesMemoryBench.java
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+// Memory check for the streaming table (pdf.flush.rows): renders growing numbers of synthetic
+// rows (no network) with the whole table built first and with the table flushed every N rows,
+// and prints the peak live heap of each. Every row has a poster of its own, as in a real report, so
+// nothing held per distinct image can hide behind a few shared posters. Rows are generated as the
+// renderer asks for them, like a pipeline delivers them, so the input itself takes no heap. Live
+// heap is sampled after a full GC every SAMPLE_ROWS rows and at the end; a flat column for
+// pdf.flush.rows is the expected result.
+//
+// Usage: java LatestMoviesMemoryBench [rows=100,1000,10000] [flush rows=50]
+//   e.g. java -Xmx512m LatestMoviesMemoryBench 100,1000,5000,10000 100
+public class LatestMoviesMemoryBench {
+
+    private static final int SAMPLE_ROWS = 250;
+
+    public static void main(String[] args) throws Exception {
+        String[] counts = (args.length > 0 ? args[0] : "100,1000,10000").split(",");
+        int flushRows = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        Path out = Files.createTempFile("memory-bench-", ".pdf");
+        try {
+            // Warm up class loading, fonts and the JIT so they do not land in the first sample
+            render(out, 200, 0);
+
+            System.out.println(String.format(Locale.ROOT, "[*] %8s  %14s  %20s", "rows", "whole table", "pdf.flush.rows=" + flushRows));
+            for (String c : counts) {
+                int rows = Integer.parseInt(c.trim());
+                long whole = render(out, rows, 0);
+                long streamed = render(out, rows, flushRows);
+                System.out.println(String.format(Locale.ROOT, "[*] %8d  %11.1f MB  %17.1f MB", rows, mb(whole), mb(streamed)));
+            }
+        } finally {
+            Files.deleteIfExists(out);
+        }
+    }
+
+    // Renders rows synthetic rows into out; returns the peak live heap in bytes
+    private static long render(Path out, int rows, int flushRows) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long[] peak = {liveHeap(memory)};
+        LatestMoviesToPdf.writePdf(out.toString(), () -> generate(rows), "memory", 1, 0, flushRows,
+                new LatestMoviesToPdf.ProgressListener() {
+                    @Override
+                    public void rendered(int count, LatestMoviesToPdf.Movie movie) {
+                        if (count % SAMPLE_ROWS == 0 || count == rows) {
+                            peak[0] = Math.max(peak[0], liveHeap(memory));
+                        }
+                    }
+                });
+        return peak[0];
+    }
+
+    private static Iterator<ReportPipeline.Row> generate(int rows) {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < rows;
+            }
+
+            @Override
+            public ReportPipeline.Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int i = next++;
+                try {
+                    return LatestMoviesRenderBench.syntheticRow(i, i, LatestMoviesRenderBench.distinctPoster(i));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private static long liveHeap(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static double mb(long bytes) {
+        return bytes / 1048576.0;
+    }
+}
@@ -0,0 +1,54 @@
+// LatestMoviesOfflineCheck.java
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+// Smoke check for offline mode: builds a small catalogue, configures the engine with catalog.file
+// and no omdb.api.key, and generates a report from it. Nothing is fetched (the records have no
+// posters). Fails (exit 1) unless every matching title is rendered, the PDF is in place and no
+// journal is left next to it.
+//
+// Usage: java LatestMoviesOfflineCheck
+public class LatestMoviesOfflineCheck {
+
+    private static final List<String> DUMP = List.of(
+            "{\"Title\":\"Batman Begins\",\"Year\":\"2005\",\"imdbID\":\"tt0372784\",\"Type\":\"movie\",\"Poster\":\"N/A\",\"imdbRating\":\"8.2\",\"Response\":\"True\"}",
+            "{\"Title\":\"The Batman\",\"Year\":\"2022\",\"imdbID\":\"tt1877830\",\"Type\":\"movie\",\"Poster\":\"N/A\",\"imdbRating\":\"7.8\",\"Response\":\"True\"}",
+            "{\"Title\":\"Alien\",\"Year\":\"1979\",\"imdbID\":\"tt0078748\",\"Type\":\"movie\",\"Poster\":\"N/A\",\"imdbRating\":\"8.5\",\"Response\":\"True\"}");
+
+    public static void main(String[] args) throws Exception {
+        Path work = Files.createTempDirectory("offline-check-");
+        try {
+            Path dump = Files.write(work.resolve("movies.jsonl"), DUMP);
+            Path store = work.resolve("movies.cat");
+            MovieCatalog.build(dump, store);
+
+            Properties props = new Properties();
+            props.setProperty("catalog.file", store.toString());
+            props.setProperty("cache.dir", work.resolve("omdb-cache").toString());
+            props.setProperty("poster.cache.dir", work.resolve("poster-cache").toString());
+            LatestMoviesToPdf.configure(props);
+
+            Path out = work.resolve("offline.pdf");
+            int rows = LatestMoviesToPdf.generateReport(null, "batman", null, out.toString());
+            check(rows == 2, "expected 2 rows, got " + rows);
+            check(Files.size(out) > 0, "no report written");
+            check(!Files.exists(EnrichmentJournal.sidecar(out)), "journal left next to the report");
+            System.out.println("[*] Offline check passed: " + rows + " rows without an API key");
+        } catch (Exception e) {
+            System.err.println("[!] Offline check failed: " + e);
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            LatestMoviesLoadHarness.deleteTree(work);
+        }
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
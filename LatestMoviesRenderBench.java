@@ -0,0 +1,139 @@
+// LatestMoviesRenderBench.java
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+
+// Benchmark for PDF rendering: lays out the same synthetic rows (no network) with each output
+// profile (pdf.profile[:pdf.compression.level]) on 1 thread and in parallel chunks at each
+// requested thread count, and prints time, speedup, pages and size.
+//
+// Usage: java LatestMoviesRenderBench [rows=5000] [chunk rows=250] [threads=1,2,4,8,16] [runs=3] [profiles=standard]
+//   e.g. java LatestMoviesRenderBench 10000 250 1 3 standard,compact:1,compact:6,compact
+public class LatestMoviesRenderBench {
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int chunkRows = args.length > 1 ? Integer.parseInt(args[1]) : 250;
+        String[] threadCounts = (args.length > 2 ? args[2] : "1,2,4,8,16").split(",");
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        String[] profiles = (args.length > 4 ? args[4] : "standard").split(",");
+
+        List<ReportPipeline.Row> data = syntheticRows(rows);
+        Path out = Files.createTempFile("render-bench-", ".pdf");
+        System.out.println("[*] " + rows + " rows, chunks of " + chunkRows + ", "
+                + Runtime.getRuntime().availableProcessors() + " cores, best of " + runs);
+        try {
+            // Warm up class loading and the JIT on the single-threaded path
+            LatestMoviesToPdf.writePdf(out.toString(), data, "bench", 1, chunkRows, 0, LatestMoviesToPdf.ProgressListener.NONE);
+
+            long baseline = 0;
+            for (String profile : profiles) {
+                Properties output = new Properties();
+                String[] spec = profile.trim().split(":");
+                output.setProperty("pdf.profile", spec[0]);
+                if (spec.length > 1) {
+                    output.setProperty("pdf.compression.level", spec[1]);
+                }
+                LatestMoviesToPdf.configureOutput(output);
+
+                for (String t : threadCounts) {
+                    int threads = Integer.parseInt(t.trim());
+                    long best = Long.MAX_VALUE;
+                    for (int r = 0; r < runs; r++) {
+                        long started = System.nanoTime();
+                        LatestMoviesToPdf.writePdf(out.toString(), data, "bench", threads, chunkRows, 0,
+                                LatestMoviesToPdf.ProgressListener.NONE);
+                        best = Math.min(best, System.nanoTime() - started);
+                    }
+                    if (baseline == 0) {
+                        baseline = best;
+                    }
+                    int pages;
+                    try (com.itextpdf.kernel.pdf.PdfDocument pdf =
+                                 new com.itextpdf.kernel.pdf.PdfDocument(new com.itextpdf.kernel.pdf.PdfReader(out.toFile()))) {
+                        pages = pdf.getNumberOfPages();
+                    }
+                    System.out.println(String.format(Locale.ROOT, "[*] %-10s %2d threads: %6d ms  x%.2f  %d pages  %d KB",
+                            profile.trim(), threads, best / 1_000_000, (double) baseline / best, pages, Files.size(out) / 1024));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(out);
+        }
+    }
+
+    // Rows shaped like enriched OMDb records; seven distinct posters shared round robin
+    static List<ReportPipeline.Row> syntheticRows(int n) throws Exception {
+        byte[][] posters = syntheticPosters();
+        List<ReportPipeline.Row> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            rows.add(syntheticRow(i, posters));
+        }
+        return rows;
+    }
+
+    static byte[][] syntheticPosters() throws Exception {
+        byte[][] posters = new byte[7][];
+        for (int i = 0; i < posters.length; i++) {
+            BufferedImage img = new BufferedImage(125, 188, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = img.createGraphics();
+            g.setColor(Color.getHSBColor(i / 7f, 0.6f, 0.8f));
+            g.fillRect(0, 0, 125, 188);
+            g.dispose();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            ImageIO.write(img, "jpg", bos);
+            posters[i] = bos.toByteArray();
+        }
+        return posters;
+    }
+
+    // A poster of row i's own: random 4x4-pixel blocks seeded by i, which encode to about the size
+    // of a real thumbnail (125x188 px, 150 dpi), so no two rows share an image
+    static byte[] distinctPoster(int i) throws IOException {
+        Random random = new Random(i);
+        BufferedImage img = new BufferedImage(125, 188, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        for (int y = 0; y < 188; y += 4) {
+            for (int x = 0; x < 125; x += 4) {
+                g.setColor(new Color(random.nextInt(0x1000000)));
+                g.fillRect(x, y, 4, 4);
+            }
+        }
+        g.dispose();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ImageIO.write(img, "jpg", bos);
+        return bos.toByteArray();
+    }
+
+    static ReportPipeline.Row syntheticRow(int i, byte[][] posters) {
+        return syntheticRow(i, i % posters.length, posters[i % posters.length]);
+    }
+
+    static ReportPipeline.Row syntheticRow(int i, int posterId, byte[] poster) {
+        LatestMoviesToPdf.Movie m = new LatestMoviesToPdf.Movie();
+        m.Title = "Synthetic Movie Title Number " + i;
+        m.Year = String.valueOf(1980 + i % 45);
+        m.imdbID = String.format("tt%07d", i);
+        m.Type = "movie";
+        m.Poster = "http://posters.example/" + posterId + ".jpg";
+        m.Runtime = (80 + i % 70) + " min";
+        m.Language = "English, French";
+        m.Country = "United States";
+        m.Rated = "PG-13";
+        m.imdbRating = String.valueOf(1 + i % 90 / 10.0);
+        m.Genre = "Action, Adventure, Drama";
+        m.Director = "Some Director";
+        m.Actors = "Actor One, Actor Two, Actor Three";
+        return new ReportPipeline.Row(m, poster);
+    }
+}
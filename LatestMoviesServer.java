@@ -0,0 +1,365 @@
+// LatestMoviesServer.java
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Keeps the engine resident and serves reports over HTTP, so a scheduler pays for JVM start-up,
+// class loading and font parsing once instead of on every report.
+//
+//   GET /report?q=<query>[&y=<year>]   the PDF, streamed from disk
+//   GET /metrics                       the server's metrics run as JSON
+//   GET /health                        "ok"
+//
+// Identical requests (same normalized query and year) arriving while that report is being
+// generated wait for the same generation instead of starting their own. Finished reports stay in
+// a disk cache bounded by entry count, total size and age; the X-Report-Source response header
+// says whether a request was a miss, a cache hit or coalesced onto another request.
+//
+// Usage: java LatestMoviesServer   (port and limits come from config.properties)
+public class LatestMoviesServer {
+
+    static final class Entry {
+        final Path file;
+        final long size;
+        final int titles;
+        final long createdAt;
+
+        Entry(Path file, long size, int titles, long createdAt) {
+            this.file = file;
+            this.size = size;
+            this.titles = titles;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final String apiKey;
+    private final Path dir;
+    private final ReportCache reports;
+    private final Semaphore generations;
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong fileCounter = new AtomicLong();
+    // The run current when the server was started; requests and their generations record into it
+    private final Metrics metrics = Metrics.current();
+    private HttpServer http;
+
+    LatestMoviesServer(String apiKey, Path dir, int maxEntries, long maxBytes, Duration ttl, int maxGenerations) {
+        this.apiKey = apiKey;
+        this.dir = dir;
+        this.reports = new ReportCache(maxEntries, maxBytes, ttl);
+        this.generations = new Semaphore(Math.max(1, maxGenerations));
+    }
+
+    public static void main(String[] args) {
+        try {
+            Properties props = LatestMoviesToPdf.loadConfig();
+            String apiKey = props.getProperty("omdb.api.key");
+            LatestMoviesToPdf.configure(props);
+            if (!LatestMoviesToPdf.offline() && (apiKey == null || apiKey.isBlank())) {
+                System.err.println("API key not found in config.properties (key=omdb.api.key)");
+                System.exit(2);
+            }
+
+            // The whole lifetime of the server is one metrics run; /metrics shows it live
+            Metrics metrics = LatestMoviesToPdf.beginMetrics("server");
+            LatestMoviesServer reportServer = start(apiKey, props);
+            InetSocketAddress address = reportServer.http.getAddress();
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                reportServer.stop();
+                LatestMoviesToPdf.endMetrics(metrics);
+            }));
+            System.out.println("[*] Serving reports on http://" + address.getHostString() + ":" + address.getPort() + "/report?q=...");
+        } catch (Exception e) {
+            System.err.println("[!] Error: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // Serves reports for props (server.* keys) until stop(); server.port=0 picks a free port. The
+    // reports go to a directory of this run's own under server.cache.dir, deleted by stop().
+    static LatestMoviesServer start(String apiKey, Properties props) throws IOException {
+        Path base = Path.of(props.getProperty("server.cache.dir", ".report-cache"));
+        Files.createDirectories(base);
+        LatestMoviesServer reportServer = new LatestMoviesServer(apiKey, Files.createTempDirectory(base, "run-"),
+                Integer.parseInt(props.getProperty("server.cache.entries", "32")),
+                Long.parseLong(props.getProperty("server.cache.mb", "256")) * 1024 * 1024,
+                Duration.ofMinutes(Long.parseLong(props.getProperty("server.cache.ttl.minutes", "10"))),
+                Integer.parseInt(props.getProperty("server.max.generations", "4")));
+
+        InetSocketAddress address = new InetSocketAddress(props.getProperty("server.bind", "127.0.0.1"),
+                Integer.parseInt(props.getProperty("server.port", "8080")));
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext("/report", reportServer::handleReport);
+        server.createContext("/metrics", reportServer::handleMetrics);
+        server.createContext("/health", ex -> sendText(ex, 200, "ok"));
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        reportServer.http = server;
+        return reportServer;
+    }
+
+    int port() {
+        return http.getAddress().getPort();
+    }
+
+    // Stops serving and deletes this run's reports
+    void stop() {
+        http.stop(1);
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        } catch (IOException e) {
+            System.err.println("[!] Could not delete " + dir + ": " + e.getMessage());
+        }
+    }
+
+    void handleReport(HttpExchange ex) throws IOException {
+        long started = System.nanoTime();
+        // Handler threads don't inherit the run that started the server; the generation below
+        // and the pipeline threads it starts record into it through this binding
+        Metrics previous = Metrics.bind(metrics);
+        try {
+            if (!"GET".equals(ex.getRequestMethod())) {
+                sendText(ex, 405, "GET only");
+                return;
+            }
+            Map<String, String> params = queryParams(ex.getRequestURI());
+            String query = params.getOrDefault("q", "").trim();
+            String year = params.getOrDefault("y", "").trim();
+            if (query.isEmpty()) {
+                sendText(ex, 400, "Missing query parameter q");
+                return;
+            }
+            String key = key(query, year);
+
+            String source = "hit";
+            Entry entry = reports.get(key);
+            if (entry == null) {
+                CompletableFuture<Entry> mine = new CompletableFuture<>();
+                CompletableFuture<Entry> existing = inFlight.putIfAbsent(key, mine);
+                if (existing == null) {
+                    source = "miss";
+                    try {
+                        Entry generated = generate(query, year);
+                        reports.put(key, generated);
+                        mine.complete(generated);
+                    } catch (Exception e) {
+                        mine.completeExceptionally(e);
+                    } finally {
+                        inFlight.remove(key, mine);
+                    }
+                    existing = mine;
+                } else {
+                    source = "coalesced";
+                }
+                try {
+                    entry = existing.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    System.err.println("[!] Report for '" + query + "' failed: " + cause.getMessage());
+                    sendText(ex, 500, "Report generation failed: " + cause.getMessage());
+                    return;
+                }
+            }
+            // server.report.hit / .miss give the cache hit rate; coalesced requests are counted apart
+            metrics.count("server.report." + source);
+            sendReport(ex, entry, query, source);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendText(ex, 503, "Server shutting down");
+        } finally {
+            metrics.time("server.request", started);
+            ex.close();
+            Metrics.bind(previous);
+        }
+    }
+
+    void handleMetrics(HttpExchange ex) throws IOException {
+        try {
+            byte[] body = metrics.toJson().getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, body.length);
+            try (OutputStream os = ex.getResponseBody()) {
+                os.write(body);
+            }
+        } finally {
+            ex.close();
+        }
+    }
+
+    private Entry generate(String query, String year) throws Exception {
+        generations.acquire();
+        try {
+            Files.createDirectories(dir);
+            Path file = dir.resolve("report-" + fileCounter.incrementAndGet() + ".pdf");
+            long started = System.nanoTime();
+            int titles = LatestMoviesToPdf.generateReport(apiKey, query, year.isEmpty() ? null : year, file.toString());
+            System.out.println("[*] Generated '" + query + "'" + (year.isEmpty() ? "" : " (" + year + ")") + ": "
+                    + titles + " movies in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+            return new Entry(file, Files.size(file), titles, System.currentTimeMillis());
+        } finally {
+            generations.release();
+        }
+    }
+
+    // Streams the file with a fixed Content-Length; the PDF is never held in memory.
+    private static void sendReport(HttpExchange ex, Entry entry, String query, String source) throws IOException {
+        InputStream in;
+        try {
+            in = Files.newInputStream(entry.file);
+        } catch (NoSuchFileException e) {
+            // Evicted between lookup and open; the client can simply ask again
+            sendText(ex, 503, "Report expired, retry");
+            return;
+        }
+        try (in) {
+            ex.getResponseHeaders().set("Content-Type", "application/pdf");
+            ex.getResponseHeaders().set("Content-Disposition", "inline; filename=\"" + fileName(query) + "\"");
+            ex.getResponseHeaders().set("X-Report-Source", source);
+            ex.getResponseHeaders().set("X-Report-Titles", String.valueOf(entry.titles));
+            ex.sendResponseHeaders(200, entry.size);
+            try (OutputStream os = ex.getResponseBody()) {
+                in.transferTo(os);
+            }
+        }
+    }
+
+    private static void sendText(HttpExchange ex, int status, String text) throws IOException {
+        byte[] body = (text + "\n").getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        ex.sendResponseHeaders(status, body.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    // Same report, same key: case and surrounding or repeated whitespace do not matter.
+    static String key(String query, String year) {
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT) + "|" + year.trim();
+    }
+
+    private static Map<String, String> queryParams(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.putIfAbsent(name, value);
+        }
+        return params;
+    }
+
+    private static String fileName(String query) {
+        String name = query.replaceAll("[^A-Za-z0-9._-]+", "-").replaceAll("^-+|-+$", "");
+        return (name.isEmpty() ? "report" : name) + ".pdf";
+    }
+
+    // LRU of finished reports, bounded by entry count, total bytes and age. Evicted files are
+    // deleted outside the lock; a response still streaming one keeps its open handle.
+    static final class ReportCache {
+        private final int maxEntries;
+        private final long maxBytes;
+        private final Duration ttl;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        ReportCache(int maxEntries, long maxBytes, Duration ttl) {
+            this.maxEntries = Math.max(1, maxEntries);
+            this.maxBytes = maxBytes;
+            this.ttl = ttl;
+        }
+
+        Entry get(String key) {
+            Entry expired = null;
+            Entry entry;
+            lock.lock();
+            try {
+                entry = entries.get(key);
+                if (entry != null && System.currentTimeMillis() - entry.createdAt > ttl.toMillis()) {
+                    entries.remove(key);
+                    bytes -= entry.size;
+                    expired = entry;
+                    entry = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (expired != null) {
+                delete(expired);
+            }
+            return entry;
+        }
+
+        void put(String key, Entry entry) {
+            List<Entry> evicted = new ArrayList<>();
+            lock.lock();
+            try {
+                Entry old = entries.put(key, entry);
+                if (old != null) {
+                    bytes -= old.size;
+                    evicted.add(old);
+                }
+                bytes += entry.size;
+                Iterator<Entry> it = entries.values().iterator();
+                while ((entries.size() > maxEntries || bytes > maxBytes) && it.hasNext()) {
+                    Entry eldest = it.next();
+                    if (eldest == entry) {
+                        // Always keep the report that was just generated
+                        continue;
+                    }
+                    it.remove();
+                    bytes -= eldest.size;
+                    evicted.add(eldest);
+                }
+            } finally {
+                lock.unlock();
+            }
+            for (Entry e : evicted) {
+                delete(e);
+            }
+        }
+
+        private static void delete(Entry e) {
+            try {
+                Files.deleteIfExists(e.file);
+            } catch (IOException ignored) {
+                // Still open for a response on a platform that refuses to delete open files
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+// LatestMoviesServerLoad.java
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Load generator for LatestMoviesServer. Each client sends its requests back to back, cycling
+// through the queries from a different starting point, so identical requests overlap and the
+// coalescing and cache paths are exercised.
+//
+// With "stub" in place of a server url, the load stays off the real API: a stub OMDb from
+// LatestMoviesLoadHarness and a server on a free port are started in this JVM, with the caches
+// and reports in a temporary directory that is deleted afterwards. stub:<titles>:<latency ms>:<error rate>
+// sets up the stub (defaults 100:50:0).
+//
+// Usage: java LatestMoviesServerLoad <server url | stub[:titles:latency:errors]> <clients> <requests per client> <query> [query...]
+//   e.g. java LatestMoviesServerLoad http://127.0.0.1:8080 16 8 Batman Superman Alien
+//        java LatestMoviesServerLoad stub:300:50:0.02 16 8 Batman Superman Alien
+public class LatestMoviesServerLoad {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: LatestMoviesServerLoad <server url | stub[:titles:latency:errors]> <clients> <requests per client> <query> [query...]");
+            System.exit(2);
+        }
+        int clients = Integer.parseInt(args[1]);
+        int perClient = Integer.parseInt(args[2]);
+        List<String> queries = List.of(args).subList(3, args.length);
+        if (!args[0].equals("stub") && !args[0].startsWith("stub:")) {
+            run(args[0].replaceAll("/+$", ""), clients, perClient, queries);
+            return;
+        }
+
+        String[] stubArgs = args[0].split(":");
+        int titles = stubArgs.length > 1 ? Integer.parseInt(stubArgs[1]) : 100;
+        int latencyMs = stubArgs.length > 2 ? Integer.parseInt(stubArgs[2]) : 50;
+        double errorRate = stubArgs.length > 3 ? Double.parseDouble(stubArgs[3]) : 0;
+        Path work = Files.createTempDirectory("server-load-");
+        LatestMoviesLoadHarness.StubOmdb stub = new LatestMoviesLoadHarness.StubOmdb(titles, latencyMs, errorRate);
+        try {
+            Properties props = LatestMoviesLoadHarness.stubConfig(stub, work);
+            props.setProperty("server.cache.dir", work.resolve("reports").toString());
+            props.setProperty("server.port", "0");
+            LatestMoviesToPdf.configure(props);
+            LatestMoviesServer server = LatestMoviesServer.start("load", props);
+            try {
+                System.out.println("[*] Stub OMDb " + stub.omdbUrl() + ": " + titles + " titles, "
+                        + latencyMs + " ms +-50%, " + errorRate * 100 + "% errors; server on port " + server.port());
+                run("http://127.0.0.1:" + server.port(), clients, perClient, queries);
+                System.out.println("[*] Stub: " + stub.requests.sum() + " requests, " + stub.errors.sum() + " errors injected");
+            } finally {
+                server.stop();
+            }
+        } finally {
+            stub.stop();
+            LatestMoviesLoadHarness.deleteTree(work);
+        }
+    }
+
+    private static void run(String base, int clients, int perClient, List<String> queries) throws Exception {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        Metrics.Histogram latency = new Metrics.Histogram();
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        AtomicLong bytes = new AtomicLong();
+
+        long started = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perClient; i++) {
+                        String query = queries.get((client + i) % queries.size());
+                        URI uri = URI.create(base + "/report?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8));
+                        long sent = System.nanoTime();
+                        String outcome;
+                        try {
+                            HttpResponse<InputStream> res = http.send(HttpRequest.newBuilder(uri).GET().build(),
+                                    HttpResponse.BodyHandlers.ofInputStream());
+                            try (InputStream body = res.body()) {
+                                bytes.addAndGet(body.transferTo(OutputStream.nullOutputStream()));
+                            }
+                            outcome = res.statusCode() == 200
+                                    ? res.headers().firstValue("X-Report-Source").orElse("ok")
+                                    : "http " + res.statusCode();
+                        } catch (Exception e) {
+                            outcome = "error";
+                        }
+                        latency.record(System.nanoTime() - sent);
+                        outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long total = latency.count();
+        System.out.println("[*] " + total + " requests from " + clients + " clients in "
+                + String.format(Locale.ROOT, "%.2f s (%.1f req/s, %.1f MB)", seconds, total / seconds, bytes.get() / 1048576.0));
+        System.out.println("[*] Latency ms: p50 " + ms(latency.percentile(0.50)) + ", p95 " + ms(latency.percentile(0.95))
+                + ", p99 " + ms(latency.percentile(0.99)) + ", max " + ms(latency.max()));
+        outcomes.forEach((k, v) -> System.out.println("[*] " + k + ": " + v.sum()));
+    }
+
+    private static String ms(long micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+}
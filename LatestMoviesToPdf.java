@@ -1,15 +1,24 @@
-// Gson for JSON parsing
-import com.google.gson.Gson;
+// Gson annotations document the JSON names; decoding lives in OmdbJson
 import com.google.gson.annotations.SerializedName;
 
 // iText Core 9 essentials
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.CompressionConstants;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.utils.PdfMerger;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.font.constants.StandardFonts;
 import com.itextpdf.io.image.ImageDataFactory;
 
@@ -19,6 +28,7 @@ import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.layout.Canvas;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.*;
+import com.itextpdf.layout.properties.AreaBreakType;
 import com.itextpdf.layout.properties.TextAlignment;
 
 import com.itextpdf.kernel.pdf.event.PdfDocumentEvent;
@@ -26,35 +36,83 @@ import com.itextpdf.kernel.pdf.event.AbstractPdfDocumentEvent;
 import com.itextpdf.kernel.pdf.event.AbstractPdfDocumentEventHandler;
 
 // Java standard libraries
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 public class LatestMoviesToPdf {
 
     private static final String OMDB_URL = "https://www.omdbapi.com/";
+    private static final int DEFAULT_QUEUE_SIZE = 16;
+    private static final int DEFAULT_CHUNK_ROWS = 250;
     private static final String UA = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) JavaHttpClient/11";
     private static final HttpClient HTTP = HttpClient.newBuilder()
             .followRedirects(HttpClient.Redirect.NORMAL)
             .connectTimeout(Duration.ofSeconds(10))
             .build();
 
+    private static String omdbUrl = OMDB_URL;
+    private static OmdbCache cache;
+    private static MovieCatalog catalog;
+    private static RateLimiter limiter;
+    private static PosterThumbnails thumbnails;
+    private static PosterDownloads posterDownloads;
+    private static int retryAttempts = 3;
+    private static int queueSize = DEFAULT_QUEUE_SIZE;
+    private static int flushRows;
+    private static int renderThreads = 1;
+    private static int renderChunkRows = DEFAULT_CHUNK_ROWS;
+    private static boolean compactOutput;
+    private static int compressionLevel = CompressionConstants.DEFAULT_COMPRESSION;
+    private static int maxPages = 10;
+    private static int pageConcurrency = 4;
+    private static boolean deltaReports;
+    private static boolean journal = true;
+    private static int journalSyncRecords = 64;
+    private static Duration journalSyncInterval = Duration.ofSeconds(1);
+    private static Duration journalMaxAge = Duration.ofDays(1);
+    private static Path metricsFile;
+    private static Duration metricsInterval = Duration.ZERO;
+
+    // Lookups already in flight, so reports running side by side share one request per imdbID or
+    // poster URL. Completed entries are dropped; repeats after that are served by the disk caches.
+    private static final Map<String, CompletableFuture<Movie>> DETAILS_IN_FLIGHT = new ConcurrentHashMap<>();
+    private static final Map<String, CompletableFuture<byte[]>> POSTERS_IN_FLIGHT = new ConcurrentHashMap<>();
+
     public static void main(String[] args) {
         try {
-            Properties props = new Properties();
-            props.load(new FileInputStream("config.properties"));
+            Properties props = loadConfig();
             String apiKey = props.getProperty("omdb.api.key");
 
-            if (apiKey == null || apiKey.isBlank()) {
+            configure(props);
+            if (!offline() && (apiKey == null || apiKey.isBlank())) {
                 System.err.println("API key not found in config.properties (key=omdb.api.key)");
                 System.exit(2);
             }
@@ -63,22 +121,15 @@ public class LatestMoviesToPdf {
             String out = args.length >= 2 ? args[1] : "latest-movies.pdf";
 
             System.out.println("[*] Searching movies with query: " + query);
-            List<Movie> basic = fetchMovies(apiKey, query);
-
-            List<Movie> detailedMovies = new ArrayList<>();
-            for (Movie m : basic) {
-                Movie full = fetchMovieDetailsWithRetry(m.imdbID, apiKey, 3, 250);
-                if (full == null) {
-                    full = m;
-                } else {
-                    if (full.Poster == null || "N/A".equalsIgnoreCase(full.Poster)) {
-                        full.Poster = m.Poster;
-                    }
-                }
-                detailedMovies.add(full);
-            }
-
-            createPdf(out, detailedMovies, query);
+            Metrics metrics = beginMetrics(out);
+            long started = System.nanoTime();
+            int rendered = deltaReports
+                    ? generateDeltaReport(apiKey, query, null, out, ProgressListener.NONE)
+                    : generateReport(apiKey, query, null, out);
+            System.out.println("[*] Rendered " + rendered + " movies in "
+                    + (System.nanoTime() - started) / 1_000_000 + " ms (queue: " + queueSize + ")");
+            printStats();
+            endMetrics(metrics);
             System.out.println("[*] PDF created: " + out);
 
         } catch (Exception e) {
@@ -88,121 +139,711 @@ public class LatestMoviesToPdf {
         }
     }
 
-    private static List<Movie> fetchMovies(String apiKey, String search) throws IOException, InterruptedException {
-        String url = OMDB_URL + "?apikey=" + encode(apiKey) + "&s=" + encode(search) + "&type=movie";
-        HttpRequest req = HttpRequest.newBuilder(URI.create(url))
-                .timeout(Duration.ofSeconds(20))
-                .header("User-Agent", UA)
-                .GET()
-                .build();
+    static Properties loadConfig() throws IOException {
+        Properties props = new Properties();
+        try (FileInputStream in = new FileInputStream("config.properties")) {
+            props.load(in);
+        }
+        return props;
+    }
 
-        HttpResponse<String> res = HTTP.send(req, HttpResponse.BodyHandlers.ofString());
-        if (res.statusCode() != 200) {
-            throw new IOException("OMDb HTTP error: " + res.statusCode());
+    // Sets up the resources shared by every report generated in this JVM.
+    static void configure(Properties props) {
+        omdbUrl = props.getProperty("omdb.url", OMDB_URL);
+        cache = OmdbCache.open(props);
+        catalog = MovieCatalog.open(props);
+        limiter = RateLimiter.open(props);
+        thumbnails = PosterThumbnails.open(props);
+        posterDownloads = PosterDownloads.open(props);
+        retryAttempts = Integer.parseInt(props.getProperty("retry.attempts", "3"));
+        queueSize = Integer.parseInt(props.getProperty("pipeline.queue.size", String.valueOf(DEFAULT_QUEUE_SIZE)));
+        flushRows = Integer.parseInt(props.getProperty("pdf.flush.rows", "0"));
+        renderThreads = Integer.parseInt(props.getProperty("pdf.render.threads", "1"));
+        renderChunkRows = Integer.parseInt(props.getProperty("pdf.render.chunk.rows", String.valueOf(DEFAULT_CHUNK_ROWS)));
+        configureOutput(props);
+        maxPages = Integer.parseInt(props.getProperty("search.max.pages", "10"));
+        pageConcurrency = Integer.parseInt(props.getProperty("search.page.concurrency", "4"));
+        deltaReports = Boolean.parseBoolean(props.getProperty("report.delta", "false"));
+        journal = Boolean.parseBoolean(props.getProperty("journal.enabled", "true"));
+        journalSyncRecords = Integer.parseInt(props.getProperty("journal.sync.records", "64"));
+        journalSyncInterval = Duration.ofMillis(Long.parseLong(props.getProperty("journal.sync.ms", "1000")));
+        // A journal is replayed in place of lookups, so it goes stale with the detail cache
+        journalMaxAge = Duration.ofMinutes(Long.parseLong(props.getProperty("cache.ttl.detail.minutes", "1440")));
+        String file = props.getProperty("metrics.file", "").trim();
+        metricsFile = file.isEmpty() ? null : Path.of(file);
+        metricsInterval = Duration.ofSeconds(Long.parseLong(props.getProperty("metrics.log.interval.seconds", "0")));
+    }
+
+    // Output profile of the PDF writer. "compact" packs objects into compressed object streams
+    // (full compression, with a cross-reference stream), writes identical objects once (smart
+    // mode) and compresses content at pdf.compression.level (default 9, the smallest and slowest).
+    // "standard" keeps iText's defaults; pdf.compression.level applies to it as well.
+    static void configureOutput(Properties props) {
+        String profile = props.getProperty("pdf.profile", "standard").trim();
+        if (!profile.equals("standard") && !profile.equals("compact")) {
+            throw new IllegalArgumentException("Unknown pdf.profile: " + profile + " (standard or compact)");
+        }
+        compactOutput = profile.equals("compact");
+        compressionLevel = Integer.parseInt(props.getProperty("pdf.compression.level",
+                String.valueOf(compactOutput ? CompressionConstants.BEST_COMPRESSION : CompressionConstants.DEFAULT_COMPRESSION)));
+    }
+
+    // A fresh instance per writer: WriterProperties is mutable
+    private static WriterProperties writerProperties() {
+        WriterProperties props = new WriterProperties().setCompressionLevel(compressionLevel);
+        if (compactOutput) {
+            props.setFullCompressionMode(true).useSmartMode();
+        }
+        return props;
+    }
+
+    // Starts collecting metrics for a run: one report, or every report of a batch.
+    static Metrics beginMetrics(String run) {
+        return Metrics.begin(run, metricsInterval);
+    }
+
+    // Closes the run's metrics, prints the summary and appends them to metrics.file if configured.
+    static void endMetrics(Metrics metrics) {
+        metrics.finish();
+        System.out.println("[*] Metrics: " + metrics.summary());
+        if (metricsFile != null) {
+            try {
+                metrics.appendTo(metricsFile);
+                System.out.println("[*] Metrics written: " + metricsFile);
+            } catch (IOException e) {
+                System.err.println("[!] Metrics write failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Progress callbacks from generateReport. expected() may arrive from a pipeline thread,
+    // rendered() is called on the thread running generateReport.
+    interface ProgressListener {
+        ProgressListener NONE = new ProgressListener() {};
+
+        default void expected(int titles) {}
+
+        default void rendered(int count, Movie movie) {}
+    }
+
+    static int generateReport(String apiKey, String query, String year, String out) throws Exception {
+        return generateReport(apiKey, query, year, out, ProgressListener.NONE);
+    }
+
+    // Search (optionally restricted to a year), enrich and render one report; returns the row count.
+    // Safe to call from several threads at once after configure(). Interrupting the calling thread
+    // cancels the run: pipeline stages and their in-flight HTTP requests are aborted, and the
+    // partially written file is deleted, since the PDF is only moved to out once it is complete.
+    static int generateReport(String apiKey, String query, String year, String out, ProgressListener listener) throws Exception {
+        return render(Path.of(out).toAbsolutePath(), null, null, apiKey, query, year,
+                () -> fetchMovies(apiKey, query, year, maxPages, pageConcurrency, listener), listener);
+    }
+
+    // Searches and details come from the local catalogue (catalog.file) instead of OMDb
+    static boolean offline() {
+        return catalog != null;
+    }
+
+    static boolean deltaReports() {
+        return deltaReports;
+    }
+
+    // Delta mode: compares the search with the sidecar index of the existing report and fetches
+    // details and posters only for titles the report does not have yet. Those rows are appended
+    // as an incremental update, so the existing pages are copied byte for byte and never laid out
+    // again. A title whose search entry changed cannot be edited in place, so a change (or a
+    // missing report or index) means a full generation, whose unchanged rows then come from the
+    // response and thumbnail caches. Returns the number of rows rendered by this run.
+    static int generateDeltaReport(String apiKey, String query, String year, String out, ProgressListener listener) throws Exception {
+        Path target = Path.of(out).toAbsolutePath();
+        Path indexFile = ReportIndex.sidecar(target);
+        ReportIndex index = Files.exists(target) ? ReportIndex.read(indexFile, query, year) : null;
+        if (index == null) {
+            System.out.println("[*] Delta: no index for " + out + ", generating the full report");
+            return generateIndexedReport(apiKey, query, year, target, listener);
+        }
+
+        Metrics metrics = Metrics.current();
+        List<Movie> added = new ArrayList<>();
+        int changed = 0, unchanged = 0;
+        for (Movie hit : fetchMovies(apiKey, query, year, maxPages, pageConcurrency, ProgressListener.NONE)) {
+            switch (index.status(hit)) {
+                case NEW: added.add(hit); break;
+                case CHANGED: changed++; break;
+                default: unchanged++;
+            }
+        }
+        metrics.add("delta.new", added.size());
+        metrics.add("delta.changed", changed);
+        metrics.add("delta.unchanged", unchanged);
+        System.out.println("[*] Delta: " + added.size() + " new, " + changed + " changed, " + unchanged + " already in " + out);
+        if (changed > 0) {
+            return generateIndexedReport(apiKey, query, year, target, listener);
+        }
+        if (added.isEmpty()) {
+            return 0;
+        }
+
+        listener.expected(added.size());
+        String heading = "Added " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))
+                + ": " + added.size() + (added.size() == 1 ? " new title" : " new titles");
+        int count = render(target, target, heading, apiKey, query, year, () -> added, listener);
+        for (Movie hit : added) {
+            index.put(hit);
+        }
+        index.write(indexFile);
+        return count;
+    }
+
+    // Full generation that records every search hit it renders in a fresh sidecar index
+    private static int generateIndexedReport(String apiKey, String query, String year, Path target, ProgressListener listener) throws Exception {
+        ReportIndex index = new ReportIndex(query, year);
+        int count = render(target, null, null, apiKey, query, year,
+                () -> fetchMovies(apiKey, query, year, maxPages, pageConcurrency, listener).peek(index::put), listener);
+        index.write(ReportIndex.sidecar(target));
+        return count;
+    }
+
+    // Runs search -> details -> posters -> PDF and moves the result to target once complete.
+    // With base set, the rows are appended to that report instead of starting a new one.
+    // Lookups are journaled next to target until then, so a failed run can be resumed.
+    private static int render(Path target, Path base, String heading, String apiKey, String query, String year,
+                              Callable<? extends Iterable<Movie>> search, ProgressListener listener) throws Exception {
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        long started = System.nanoTime();
+        long posterDeadline = posterDownloads.reportDeadline();
+        EnrichmentJournal lookups = journal ? EnrichmentJournal.open(target, query, year, journalMaxAge, journalSyncRecords, journalSyncInterval) : null;
+        try (ReportPipeline pipeline = new ReportPipeline(queueSize, search,
+                m -> enrichMovie(m, apiKey, lookups),
+                url -> fetchPoster(url, posterDeadline, lookups))) {
+            int count = base == null
+                    ? writePdf(part.toString(), pipeline, query, renderThreads, renderChunkRows, flushRows, listener)
+                    : appendPdf(base, part.toString(), pipeline, heading, flushRows, listener);
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            if (lookups != null) {
+                lookups.delete();
+            }
+            Metrics metrics = Metrics.current();
+            metrics.time("report", started);
+            metrics.add("bytes.pdf", Files.size(target));
+            return count;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof InterruptedException) {
+                throw (InterruptedException) e.getCause();
+            }
+            throw e;
+        } finally {
+            Files.deleteIfExists(part);
+            if (lookups != null) {
+                lookups.close();
+            }
+        }
+    }
+
+    static List<RateLimiter.HostStats> limiterStats() {
+        return limiter.stats();
+    }
+
+    static void printStats() {
+        System.out.println("[*] Cache: " + cache.stats());
+        for (RateLimiter.HostStats hs : limiter.stats()) {
+            System.out.println("[*] Limiter " + hs);
+        }
+    }
+
+    // Streams hits from every result page, up to maxPages, in page order and without duplicate imdbIDs.
+    private static PagedSearch<Movie> fetchMovies(String apiKey, String search, String year, int maxPages, int concurrency,
+                                               ProgressListener listener) throws Exception {
+        PagedSearch<Movie> hits = PagedSearch.start(page -> fetchMoviesPage(apiKey, search, year, page), m -> m.imdbID, maxPages, concurrency);
+        listener.expected(hits.expected());
+        return hits;
+    }
+
+    private static PagedSearch.Page<Movie> fetchMoviesPage(String apiKey, String search, String year, int page) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        // Offline runs have no API key, so the catalogue is asked before any OMDb URL is built
+        if (catalog != null) {
+            PagedSearch.Page<Movie> hits = catalog.search(search, year, page);
+            Metrics.current().time("search.page", started);
+            if (page == 1 && hits.items.isEmpty()) {
+                System.out.println("[!] No results in the offline catalogue for: " + search);
+            }
+            return hits;
+        }
+        Map<String, String> params = new HashMap<>(Map.of("s", search, "type", "movie", "page", String.valueOf(page)));
+        String url = omdbUrl + "?apikey=" + encode(apiKey) + "&s=" + encode(search) + "&type=movie&page=" + page;
+        if (year != null && !year.isBlank()) {
+            params.put("y", year);
+            url += "&y=" + encode(year);
+        }
+        String requestUrl = url;
+        SearchResult result;
+        try {
+            result = cache.readThrough(OmdbCache.Endpoint.SEARCH, params,
+                    () -> omdbOpen(requestUrl, "bytes.search"), OmdbJson::readSearch,
+                    r -> "True".equalsIgnoreCase(r.Response) && r.Search != null);
+        } finally {
+            Metrics.current().time("search.page", started);
         }
 
-        SearchResult result = new Gson().fromJson(res.body(), SearchResult.class);
         if (result != null && "True".equalsIgnoreCase(result.Response) && result.Search != null) {
-            return Arrays.asList(result.Search);
+            return new PagedSearch.Page<>(Arrays.asList(result.Search), parseCount(result.totalResults));
+        }
+        if (page == 1) {
+            System.out.println("[!] OMDb said no results. Error: " + (result == null ? "null" : result.Error));
+        }
+        return PagedSearch.Page.empty();
+    }
+
+    private static int parseCount(String s) {
+        try {
+            return s == null ? 0 : Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static Movie enrichMovie(Movie basic, String apiKey, EnrichmentJournal journal) {
+        Movie full = journal == null ? null : journal.details(basic.imdbID);
+        if (full == null) {
+            full = shareInFlight(DETAILS_IN_FLIGHT, basic.imdbID, () -> fetchMovieDetailsWithRetry(basic.imdbID, apiKey));
+            if (full != null && journal != null) {
+                journal.recordDetails(full);
+            }
+        }
+        if (full == null) {
+            return basic;
+        }
+        if (full.Poster == null || "N/A".equalsIgnoreCase(full.Poster)) {
+            // The detail record may be shared with another report, so patch a copy
+            full = full.withPoster(basic.Poster);
         }
-        System.out.println("[!] OMDb said no results. Error: " + (result == null ? "null" : result.Error));
-        return Collections.emptyList();
+        return full;
     }
 
-    private static Movie fetchMovieDetailsWithRetry(String imdbID, String apiKey, int attempts, long sleepMs) {
-        for (int i = 1; i <= attempts; i++) {
+    // Posters still downloading at deadline (System.nanoTime()) are left out of the report
+    private static byte[] fetchPoster(String url, long deadline, EnrichmentJournal journal) {
+        byte[] replayed = journal == null ? null : journal.poster(url);
+        if (replayed != null) {
+            return replayed;
+        }
+        byte[] poster = shareInFlight(POSTERS_IN_FLIGHT, url, () -> {
+            long started = System.nanoTime();
             try {
-                Movie m = fetchMovieDetails(imdbID, apiKey);
-                if (m != null && (m.imdbRating != null || m.Genre != null)) {
-                    return m;
-                }
-            } catch (Exception ignored) {}
-            try { Thread.sleep(sleepMs * i); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+                return thumbnails.fetch(url, u -> fetchBytesPreferRastFormats(u, deadline));
+            } finally {
+                Metrics.current().time("posters", started);
+            }
+        });
+        if (poster != null && journal != null) {
+            journal.recordPoster(url, poster, thumbnails.cachedFile(url));
+        }
+        return poster;
+    }
+
+    // The first caller for a key runs the lookup; callers arriving while it runs wait for its result.
+    // A lookup cut short because its caller was cancelled is not an answer: it is not handed to the
+    // waiters, who start the lookup again, and the cancelled caller gets a CancellationException.
+    private static <T> T shareInFlight(Map<String, CompletableFuture<T>> inFlight, String key, Supplier<T> lookup) {
+        if (key == null) {
+            return lookup.get();
+        }
+        while (true) {
+            CompletableFuture<T> mine = new CompletableFuture<>();
+            CompletableFuture<T> existing = inFlight.putIfAbsent(key, mine);
+            if (existing == null) {
+                return runShared(inFlight, key, mine, lookup);
+            }
+            try {
+                return existing.get();
+            } catch (CancellationException e) {
+                // Its owner was cancelled: look it up again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Lookup of " + key + " cancelled");
+            } catch (ExecutionException e) {
+                throw new CompletionException(e.getCause());
+            }
+        }
+    }
+
+    private static <T> T runShared(Map<String, CompletableFuture<T>> inFlight, String key, CompletableFuture<T> mine,
+                                   Supplier<T> lookup) {
+        try {
+            T result = lookup.get();
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Lookup of " + key + " cancelled");
+            }
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(Thread.currentThread().isInterrupted() && !(e instanceof CancellationException)
+                    ? new CancellationException("Lookup of " + key + " cancelled") : e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Transient failures (429, 5xx, I/O) are retried with backoff inside the limiter. A well-formed
+    // answer is final: a movie without a rating is still a result, and "Response":"False" will
+    // not change on a retry.
+    private static Movie fetchMovieDetailsWithRetry(String imdbID, String apiKey) {
+        Metrics metrics = Metrics.current();
+        long started = System.nanoTime();
+        try {
+            Movie m = fetchMovieDetails(imdbID, apiKey);
+            if (m != null && !"False".equalsIgnoreCase(m.Response)) {
+                return m;
+            }
+            System.out.println("[!] OMDb has no details for " + imdbID + ": " + (m == null ? "empty response" : m.Error));
+            metrics.count("details.missing");
+            return null;
+        } catch (InterruptedException ie) {
+            // Cancelled, not failed: no result, so a shared lookup is not answered with null
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Details lookup for " + imdbID + " cancelled");
+        } catch (Exception e) {
+            System.out.println("[!] Falling back after retries for " + imdbID + ": " + e.getMessage());
+            metrics.count("details.fallback");
+        } finally {
+            metrics.time("details", started);
         }
-        System.out.println("[!] Falling back after retries for " + imdbID);
         return null;
     }
 
     private static Movie fetchMovieDetails(String imdbID, String apiKey) throws IOException, InterruptedException {
-        String url = OMDB_URL + "?apikey=" + encode(apiKey) + "&i=" + encode(imdbID) + "&plot=short";
+        if (catalog != null) {
+            return catalog.details(imdbID);
+        }
+        String url = omdbUrl + "?apikey=" + encode(apiKey) + "&i=" + encode(imdbID) + "&plot=short";
+        return cache.readThrough(OmdbCache.Endpoint.DETAIL, Map.of("i", imdbID, "plot", "short"),
+                () -> omdbOpen(url, "bytes.details"), OmdbJson::readMovie,
+                m -> !"False".equalsIgnoreCase(m.Response));
+    }
+
+    // Returns the response body as a stream, counting the bytes read under byteCounter; the caller closes it.
+    private static InputStream omdbOpen(String url, String byteCounter) throws IOException, InterruptedException {
         HttpRequest req = HttpRequest.newBuilder(URI.create(url))
                 .timeout(Duration.ofSeconds(20))
                 .header("User-Agent", UA)
                 .GET()
                 .build();
 
-        HttpResponse<String> res = HTTP.send(req, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<InputStream> res = limiter.send(HTTP, req, HttpResponse.BodyHandlers.ofInputStream(), retryAttempts);
         if (res.statusCode() != 200) {
+            res.body().close();
             throw new IOException("OMDb HTTP error: " + res.statusCode());
         }
-        return new Gson().fromJson(res.body(), Movie.class);
+        Metrics metrics = Metrics.current();
+        return new FilterInputStream(res.body()) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    metrics.add(byteCounter, 1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buf, int off, int len) throws IOException {
+                int n = super.read(buf, off, len);
+                if (n > 0) {
+                    metrics.add(byteCounter, n);
+                }
+                return n;
+            }
+        };
     }
 
-    private static void createPdf(String out, List<Movie> movies, String query) throws Exception {
-        try (PdfWriter writer = new PdfWriter(out);
+    // Consumes rows as the pipeline delivers them; returns the number of movies rendered.
+    // With flushRows > 0 the table is built as a large table and every flushRows rows are written
+    // out to the PdfWriter, so heap use stays flat regardless of the number of titles.
+    private static int createPdf(String out, Iterable<ReportPipeline.Row> rows, String query, int flushRows,
+                                 ProgressListener listener) throws Exception {
+        int count;
+        long closing;
+        try (PdfWriter writer = new PdfWriter(out, writerProperties());
              PdfDocument pdf = new PdfDocument(writer);
              Document document = new Document(pdf)) {
 
-            PdfFont bold = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
-            PdfFont regular = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+            // A PdfFont belongs to one document; the parsed font programs are shared
+            PdfFont bold = PdfFontFactory.createFont(Fonts.BOLD, PdfEncodings.WINANSI);
+            PdfFont regular = PdfFontFactory.createFont(Fonts.REGULAR, PdfEncodings.WINANSI);
 
             // Register footer event handler
             pdf.addEventHandler(PdfDocumentEvent.END_PAGE, new FooterEventHandler(regular));
 
-            // --- Cover Page ---
-            document.add(new Paragraph("Latest Movies Report").setFont(bold).setFontSize(20).setTextAlignment(TextAlignment.CENTER));
-            document.add(new Paragraph("Search Query: " + query).setFont(regular).setFontSize(14).setTextAlignment(TextAlignment.CENTER));
-            document.add(new Paragraph("Generated On: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))).setFont(regular).setFontSize(10).setTextAlignment(TextAlignment.CENTER));
+            addCover(document, query, bold, regular);
             document.add(new AreaBreak());
 
-            // --- Table ---
-            float[] columnWidths = {80f, 120f, 50f, 60f, 80f, 80f, 60f, 60f, 50f, 100f, 100f, 120f};
-            Table table = new Table(columnWidths).useAllAvailableWidth();
+            count = addMovieTable(document, rows, bold, regular, flushRows, listener);
+            closing = System.nanoTime();
+        }
+        Metrics.current().time("pdf.close", closing);
+        return count;
+    }
 
-            String[] headers = {"Poster", "Title", "Year", "Runtime", "Language", "Country", "Type", "Rated", "IMDb", "Genre", "Director", "Actors"};
-            for (String h : headers) {
-                table.addHeaderCell(new Cell().add(new Paragraph(h).setFont(bold)));
-            }
+    // Lays the rows out into out, on the calling thread or in parallel chunks when threads > 1.
+    static int writePdf(String out, Iterable<ReportPipeline.Row> rows, String query, int threads, int chunkRows,
+                        int flushRows, ProgressListener listener) throws Exception {
+        return threads > 1
+                ? createPdfParallel(out, rows, query, threads, Math.max(1, chunkRows), listener)
+                : createPdf(out, rows, query, flushRows, listener);
+    }
+
+    // A chunk of rows being laid out on a worker into its own in-memory document
+    private static final class Part {
+        final List<Movie> movies;
+        final Future<byte[]> pdf;
+
+        Part(List<Movie> movies, Future<byte[]> pdf) {
+            this.movies = movies;
+            this.pdf = pdf;
+        }
+    }
+
+    // iText layout is single-threaded per document, so rows are cut into chunks of chunkRows that
+    // are laid out on a pool of threads, each into an in-memory PdfDocument (the cover is a part
+    // of its own). Parts are merged in order with PdfMerger as soon as the next one is ready. The
+    // merged document is written in smart mode, so the fonts and poster images that several parts
+    // carry are written once. The footer is stamped after merging, on the final pages, which are
+    // then flushed. At most 2 * threads parts are in flight (queued, being laid out, or done and
+    // waiting for their turn to merge), which bounds memory. Each chunk starts on a new page.
+    private static int createPdfParallel(String out, Iterable<ReportPipeline.Row> rows, String query, int threads,
+                                         int chunkRows, ProgressListener listener) throws Exception {
+        Metrics metrics = Metrics.current();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        int count = 0;
+        long closing;
+        try (PdfDocument pdf = new PdfDocument(new PdfWriter(out, writerProperties().useSmartMode()))) {
+            PdfMerger merger = new PdfMerger(pdf);
+            FooterEventHandler footer = new FooterEventHandler(PdfFontFactory.createFont(Fonts.REGULAR, PdfEncodings.WINANSI));
+            Deque<Part> parts = new ArrayDeque<>();
+            int maxParts = 2 * threads;
+            parts.add(new Part(List.of(), workers.submit(() -> renderPart(query, null))));
 
-            for (Movie m : movies) {
-                // Poster
-                boolean posterAdded = false;
-                if (m.Poster != null && !"N/A".equalsIgnoreCase(m.Poster)) {
-                    byte[] imgBytes = fetchBytesPreferRastFormats(m.Poster);
-                    if (imgBytes != null) {
-                        try {
-                            Image img = new Image(ImageDataFactory.create(imgBytes))
-                                    .setAutoScale(false)
-                                    .scaleToFit(60, 90)
-                                    .setWidth(60).setHeight(90);
-                            table.addCell(new Cell().add(img));
-                            posterAdded = true;
-                        } catch (Exception ignored) {}
+            List<ReportPipeline.Row> chunk = new ArrayList<>(chunkRows);
+            Iterator<ReportPipeline.Row> it = rows.iterator();
+            for (long waiting = System.nanoTime(); it.hasNext(); waiting = System.nanoTime()) {
+                chunk.add(it.next());
+                metrics.time("pdf.row.wait", waiting);
+                if (chunk.size() == chunkRows) {
+                    // Rows can arrive faster than they are laid out: wait for the oldest part
+                    // rather than buffer more than maxParts chunks and their finished bytes
+                    while (parts.size() >= maxParts) {
+                        count = mergePart(pdf, merger, footer, parts.poll(), count, listener);
                     }
+                    parts.add(submitPart(workers, chunk));
+                    chunk = new ArrayList<>(chunkRows);
                 }
-                if (!posterAdded) {
-                    table.addCell(new Cell().add(new Paragraph("No Img").setFont(regular)));
+                while (!parts.isEmpty() && parts.peek().pdf.isDone()) {
+                    count = mergePart(pdf, merger, footer, parts.poll(), count, listener);
                 }
+            }
+            if (!chunk.isEmpty()) {
+                parts.add(submitPart(workers, chunk));
+            }
+            while (!parts.isEmpty()) {
+                count = mergePart(pdf, merger, footer, parts.poll(), count, listener);
+            }
+            closing = System.nanoTime();
+        } finally {
+            workers.shutdownNow();
+        }
+        metrics.time("pdf.close", closing);
+        return count;
+    }
+
+    private static Part submitPart(ExecutorService workers, List<ReportPipeline.Row> chunk) {
+        List<Movie> movies = new ArrayList<>(chunk.size());
+        for (ReportPipeline.Row row : chunk) {
+            movies.add(row.movie);
+        }
+        return new Part(movies, workers.submit(() -> renderPart(null, chunk)));
+    }
+
+    // The cover when query is set, otherwise a table of the rows; returns the PDF bytes
+    private static byte[] renderPart(String query, List<ReportPipeline.Row> rows) throws Exception {
+        long started = System.nanoTime();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // Merging copies the parts' streams as they are, so they are compressed like the result
+        try (PdfDocument pdf = new PdfDocument(new PdfWriter(bytes, new WriterProperties().setCompressionLevel(compressionLevel)));
+             Document document = new Document(pdf)) {
+            PdfFont bold = PdfFontFactory.createFont(Fonts.BOLD, PdfEncodings.WINANSI);
+            PdfFont regular = PdfFontFactory.createFont(Fonts.REGULAR, PdfEncodings.WINANSI);
+            if (rows == null) {
+                addCover(document, query, bold, regular);
+            } else {
+                addMovieTable(document, rows, bold, regular, 0, ProgressListener.NONE);
+            }
+        }
+        Metrics.current().time("pdf.part", started);
+        return bytes.toByteArray();
+    }
+
+    private static int mergePart(PdfDocument pdf, PdfMerger merger, FooterEventHandler footer, Part part, int count,
+                                 ProgressListener listener) throws Exception {
+        byte[] bytes;
+        try {
+            bytes = part.pdf.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        long started = System.nanoTime();
+        int first = pdf.getNumberOfPages() + 1;
+        try (PdfDocument src = new PdfDocument(new PdfReader(new ByteArrayInputStream(bytes)))) {
+            merger.merge(src, 1, src.getNumberOfPages());
+        }
+        for (int i = first; i <= pdf.getNumberOfPages(); i++) {
+            PdfPage page = pdf.getPage(i);
+            footer.stamp(pdf, page);
+            page.flush();
+        }
+        Metrics.current().time("pdf.merge", started);
+        for (Movie m : part.movies) {
+            listener.rendered(++count, m);
+        }
+        return count;
+    }
+
+    private static void addCover(Document document, String query, PdfFont bold, PdfFont regular) {
+        // --- Cover Page ---
+        document.add(new Paragraph("Latest Movies Report").setFont(bold).setFontSize(20).setTextAlignment(TextAlignment.CENTER));
+        document.add(new Paragraph("Search Query: " + query).setFont(regular).setFontSize(14).setTextAlignment(TextAlignment.CENTER));
+        document.add(new Paragraph("Generated On: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))).setFont(regular).setFontSize(10).setTextAlignment(TextAlignment.CENTER));
+    }
+
+    // Adds rows to an existing report as an incremental (append mode) update: the original bytes
+    // are copied as they are and the new rows go on pages after the last one, under a heading.
+    private static int appendPdf(Path base, String out, Iterable<ReportPipeline.Row> rows, String heading, int flushRows,
+                                 ProgressListener listener) throws Exception {
+        int count;
+        long closing;
+        // Pages are kept open until the footer is stamped on them, which is fine for a delta's few rows
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(base.toFile()), new PdfWriter(out, writerProperties()),
+                new StampingProperties().useAppendMode());
+             Document document = new Document(pdf, pdf.getDefaultPageSize(), false)) {
+
+            int basePages = pdf.getNumberOfPages();
+            PdfFont bold = PdfFontFactory.createFont(Fonts.BOLD, PdfEncodings.WINANSI);
+            PdfFont regular = PdfFontFactory.createFont(Fonts.REGULAR, PdfEncodings.WINANSI);
+
+            // Layout would otherwise start on page 1, over the existing content
+            document.add(new AreaBreak(AreaBreakType.LAST_PAGE));
+            document.add(new AreaBreak(AreaBreakType.NEXT_PAGE));
+            document.add(new Paragraph(heading).setFont(bold).setFontSize(14));
+
+            count = addMovieTable(document, rows, bold, regular, flushRows, listener);
+
+            // In append mode END_PAGE fires for the old pages layout walks past and not for the new
+            // ones, so the footer handler is not registered and the new pages are stamped here
+            FooterEventHandler footer = new FooterEventHandler(regular);
+            for (int i = basePages + 1; i <= pdf.getNumberOfPages(); i++) {
+                footer.stamp(pdf, pdf.getPage(i));
+            }
+            closing = System.nanoTime();
+        }
+        Metrics.current().time("pdf.close", closing);
+        return count;
+    }
+
+    private static int addMovieTable(Document document, Iterable<ReportPipeline.Row> rows, PdfFont bold, PdfFont regular,
+                                     int flushRows, ProgressListener listener) throws Exception {
+        Metrics metrics = Metrics.current();
+        boolean streaming = flushRows > 0;
+        int count = 0;
+
+        // --- Table ---
+        float[] columnWidths = {80f, 120f, 50f, 60f, 80f, 80f, 60f, 60f, 50f, 100f, 100f, 120f};
+        Table table = new Table(columnWidths, streaming).useAllAvailableWidth();
+
+        String[] headers = {"Poster", "Title", "Year", "Runtime", "Language", "Country", "Type", "Rated", "IMDb", "Genre", "Director", "Actors"};
+        for (String h : headers) {
+            table.addHeaderCell(new Cell().add(new Paragraph(h).setFont(bold)));
+        }
+        if (streaming) {
+            // A large table is added up front; the header is repeated on every page it spans
+            document.add(table);
+        }
 
-                // Title with link
-                Link titleLink = new Link(safe(m.Title), com.itextpdf.kernel.pdf.action.PdfAction.createURI("https://www.imdb.com/title/" + safe(m.imdbID)));
-                titleLink.setFontColor(ColorConstants.BLUE).setUnderline();
-                table.addCell(new Cell().add(new Paragraph(titleLink).setFont(regular)));
-
-                table.addCell(new Cell().add(new Paragraph(safe(m.Year)).setFont(regular)));
-                table.addCell(new Cell().add(new Paragraph(safe(m.Runtime)).setFont(regular)));
-                table.addCell(new Cell().add(new Paragraph(safe(m.Language)).setFont(regular)));
-                table.addCell(new Cell().add(new Paragraph(safe(m.Country)).setFont(regular)));
-                table.addCell(new Cell().add(new Paragraph(safe(m.Type)).setFont(regular)));
-                table.addCell(new Cell().add(new Paragraph(safe(m.Rated)).setFont(regular)));
-                table.addCell(ratingCell(safe(m.imdbRating), regular));
-                table.addCell(new Cell().add(new Paragraph(safe(m.Genre)).setFont(regular)));
-                table.addCell(new Cell().add(new Paragraph(safe(m.Director)).setFont(regular)));
-                table.addCell(new Cell().add(new Paragraph(safe(m.Actors)).setFont(regular)));
+        PosterImages posters = new PosterImages(document.getPdfDocument());
+
+        // Time spent waiting here is time the renderer is starved by the fetch stages; rows already
+        // in memory (a parallel part) have nothing to wait for and would only dilute the timer
+        boolean timeWaits = !(rows instanceof List);
+        Iterator<ReportPipeline.Row> it = rows.iterator();
+        for (long waiting = System.nanoTime(); it.hasNext(); waiting = System.nanoTime()) {
+            ReportPipeline.Row row = it.next();
+            if (timeWaits) {
+                metrics.time("pdf.row.wait", waiting);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException("Report generation cancelled");
+            }
+            long building = System.nanoTime();
+            Movie m = row.movie;
+            count++;
+            addRow(table, row, posters, regular);
+            metrics.time("pdf.row", building);
+
+            if (streaming && count % flushRows == 0) {
+                long flushing = System.nanoTime();
+                table.flush();
+                metrics.time("pdf.flush", flushing);
             }
+            listener.rendered(count, m);
+        }
 
+        // Layout of whatever is still buffered
+        long finishing = System.nanoTime();
+        if (streaming) {
+            table.complete();
+        } else {
             document.add(table);
         }
+        metrics.time("pdf.finish", finishing);
+        metrics.add("rows", count);
+        return count;
+    }
+
+    // The twelve cells of one movie; posters holds the image XObjects already in the document
+    private static void addRow(Table table, ReportPipeline.Row row, PosterImages posters, PdfFont regular) {
+        Movie m = row.movie;
+
+        // Poster
+        boolean posterAdded = false;
+        if (row.poster != null) {
+            try {
+                Image img = new Image(posters.get(row))
+                        .setAutoScale(false)
+                        .scaleToFit(PosterThumbnails.WIDTH_PT, PosterThumbnails.HEIGHT_PT)
+                        .setWidth(PosterThumbnails.WIDTH_PT).setHeight(PosterThumbnails.HEIGHT_PT);
+                table.addCell(new Cell().add(img));
+                posterAdded = true;
+            } catch (Exception ignored) {}
+        }
+        if (!posterAdded) {
+            Metrics.current().count("posters.missing");
+            table.addCell(new Cell().add(new Paragraph("No Img").setFont(regular)));
+        }
+
+        // Title with link
+        Link titleLink = new Link(safe(m.Title), com.itextpdf.kernel.pdf.action.PdfAction.createURI("https://www.imdb.com/title/" + safe(m.imdbID)));
+        titleLink.setFontColor(ColorConstants.BLUE).setUnderline();
+        table.addCell(new Cell().add(new Paragraph(titleLink).setFont(regular)));
+
+        table.addCell(new Cell().add(new Paragraph(safe(m.Year)).setFont(regular)));
+        table.addCell(new Cell().add(new Paragraph(safe(m.Runtime)).setFont(regular)));
+        table.addCell(new Cell().add(new Paragraph(safe(m.Language)).setFont(regular)));
+        table.addCell(new Cell().add(new Paragraph(safe(m.Country)).setFont(regular)));
+        table.addCell(new Cell().add(new Paragraph(safe(m.Type)).setFont(regular)));
+        table.addCell(new Cell().add(new Paragraph(safe(m.Rated)).setFont(regular)));
+        table.addCell(ratingCell(safe(m.imdbRating), regular));
+        table.addCell(new Cell().add(new Paragraph(safe(m.Genre)).setFont(regular)));
+        table.addCell(new Cell().add(new Paragraph(safe(m.Director)).setFont(regular)));
+        table.addCell(new Cell().add(new Paragraph(safe(m.Actors)).setFont(regular)));
     }
 
     private static Cell ratingCell(String ratingStr, PdfFont regular) {
@@ -223,24 +864,28 @@ public class LatestMoviesToPdf {
         return c;
     }
 
-    private static byte[] fetchBytesPreferRastFormats(String url) {
-        return fetchBytesWithAccept(url, "image/jpeg,image/png,image/*;q=0.8,*/*;q=0.5");
+    private static byte[] fetchBytesPreferRastFormats(String url, long deadline) {
+        return fetchBytesWithAccept(url, "image/jpeg,image/png,image/*;q=0.8,*/*;q=0.5", deadline);
     }
 
-    private static byte[] fetchBytesWithAccept(String url, String accept) {
+    // Timeouts, hedging and skipping of failing hosts are up to posterDownloads; null on failure
+    private static byte[] fetchBytesWithAccept(String url, String accept, long deadline) {
+        URI uri;
         try {
-            HttpRequest req = HttpRequest.newBuilder(URI.create(url))
-                    .timeout(Duration.ofSeconds(20))
-                    .header("User-Agent", UA)
-                    .header("Accept", accept)
-                    .GET()
-                    .build();
-            HttpResponse<byte[]> res = HTTP.send(req, HttpResponse.BodyHandlers.ofByteArray());
-            if (res.statusCode() == 200) {
-                return res.body();
-            }
-        } catch (Exception ignored) {}
-        return null;
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            Metrics.current().count("posters.download.failed");
+            return null;
+        }
+        // Each attempt builds its own request: a hedged attempt runs alongside the first one
+        return posterDownloads.fetch(url, deadline, timeout -> limiter.send(HTTP,
+                HttpRequest.newBuilder(uri)
+                        .timeout(timeout)
+                        .header("User-Agent", UA)
+                        .header("Accept", accept)
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray(), 2));
     }
 
     private static String encode(String s) {
@@ -252,8 +897,13 @@ public class LatestMoviesToPdf {
     }
 
 // --- Footer Handler ---
+// The footer is identical on every page, so it is laid out once per document into a form XObject
+// and each END_PAGE only stamps a reference to it.
 private static class FooterEventHandler extends AbstractPdfDocumentEventHandler {
     private final PdfFont font;
+    private PdfFormXObject footer;
+    private Rectangle footerSize;
+
     FooterEventHandler(PdfFont font) { this.font = font; }
 
     @Override
@@ -262,9 +912,23 @@ private static class FooterEventHandler extends AbstractPdfDocumentEventHandler
             return;
         }
         PdfDocumentEvent docEvent = (PdfDocumentEvent) event;
-        PdfPage page = docEvent.getPage();
+        stamp(docEvent.getDocument(), docEvent.getPage());
+    }
+
+    void stamp(PdfDocument pdf, PdfPage page) {
         Rectangle rect = page.getPageSize();
-        Canvas canvas = new Canvas(new PdfCanvas(page), rect);
+        if (footer == null || !footerSize.equalsWithEpsilon(rect)) {
+            footer = renderFooter(pdf, rect);
+            footerSize = rect;
+        }
+        new PdfCanvas(page).addXObjectAt(footer, rect.getLeft(), rect.getBottom()).release();
+    }
+
+    private PdfFormXObject renderFooter(PdfDocument pdf, Rectangle pageSize) {
+        Rectangle rect = new Rectangle(pageSize.getWidth(), pageSize.getHeight());
+        PdfFormXObject xObject = new PdfFormXObject(rect);
+        // Give the canvas our font, otherwise it resolves (and the document retains) a default one
+        Canvas canvas = new Canvas(xObject, pdf).setFont(font);
 
         // Rating scale
         float[] scaleCols = new float[10];
@@ -297,13 +961,15 @@ private static class FooterEventHandler extends AbstractPdfDocumentEventHandler
                 TextAlignment.RIGHT).setFontSize(9).setFont(font);
 
         canvas.close();
+        return xObject;
     }
 }
 
-    private static class SearchResult {
+    static class SearchResult {
         @SerializedName("Response") String Response;
         @SerializedName("Error") String Error;
         @SerializedName("Search") Movie[] Search;
+        @SerializedName("totalResults") String totalResults;
     }
 
     static class Movie {
@@ -320,5 +986,76 @@ private static class FooterEventHandler extends AbstractPdfDocumentEventHandler
         @SerializedName("Language") String Language;
         @SerializedName("Country") String Country;
         @SerializedName("Rated") String Rated;
+        @SerializedName("Response") String Response;
+        @SerializedName("Error") String Error;
+
+        Movie withPoster(String poster) {
+            Movie copy = new Movie();
+            copy.Title = Title;
+            copy.Year = Year;
+            copy.imdbID = imdbID;
+            copy.Type = Type;
+            copy.Poster = poster;
+            copy.Genre = Genre;
+            copy.Director = Director;
+            copy.Actors = Actors;
+            copy.imdbRating = imdbRating;
+            copy.Runtime = Runtime;
+            copy.Language = Language;
+            copy.Country = Country;
+            copy.Rated = Rated;
+            copy.Response = Response;
+            copy.Error = Error;
+            return copy;
+        }
+    }
+
+    // One image XObject per distinct poster, keyed by the digest of its bytes, so a poster that
+    // appears on several rows (even behind different URLs) is embedded once. Each image is written
+    // to the document as soon as it is created: the page only refers to it, and its width and
+    // height stay on the XObject, so nothing holds the image data while the table is laid out.
+    // Only the RECENT most recently used posters are remembered; one that comes back after that
+    // is embedded again, which keeps a report of distinct posters in constant memory.
+    static final class PosterImages {
+        private static final int RECENT = 256;
+
+        private final PdfDocument pdf;
+        private final Map<String, PdfImageXObject> recent = new LinkedHashMap<>(RECENT, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PdfImageXObject> eldest) {
+                return size() > RECENT;
+            }
+        };
+
+        PosterImages(PdfDocument pdf) {
+            this.pdf = pdf;
+        }
+
+        PdfImageXObject get(ReportPipeline.Row row) {
+            PdfImageXObject xObject = recent.get(row.posterDigest);
+            if (xObject == null) {
+                long decoding = System.nanoTime();
+                xObject = new PdfImageXObject(ImageDataFactory.create(row.poster));
+                xObject.makeIndirect(pdf);
+                xObject.flush();
+                Metrics.current().time("pdf.image.decode", decoding);
+                recent.put(row.posterDigest, xObject);
+            }
+            return xObject;
+        }
+    }
+
+    // Font programs parsed once per JVM and reused by every report
+    private static final class Fonts {
+        static final FontProgram BOLD = load(StandardFonts.HELVETICA_BOLD);
+        static final FontProgram REGULAR = load(StandardFonts.HELVETICA);
+
+        private static FontProgram load(String name) {
+            try {
+                return FontProgramFactory.createFont(name);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 }
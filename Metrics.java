@@ -0,0 +1,382 @@
+// Metrics.java
+import com.google.gson.stream.JsonWriter;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Instrumentation for one run of the report engine (a report, or a whole batch): a latency
+// histogram per stage, counters for bytes, retries, fallbacks and cache hits, and peak heap.
+// Recording is lock-free, so pipeline threads report from anywhere through Metrics.current().
+// The current run belongs to the thread that began it and is inherited by the threads it starts
+// (pipeline stages, page fetchers, poster downloads), so runs that overlap keep their own
+// numbers. Threads outside any run record into a process-wide "startup" run.
+// Peak heap is taken from GC notifications: heap use only drops at a collection, so its maximum
+// is the usage just before some GC, or the usage now.
+final class Metrics {
+
+    private static final Metrics STARTUP = new Metrics("startup", Duration.ZERO, false);
+    private static final InheritableThreadLocal<Metrics> CURRENT = new InheritableThreadLocal<>() {
+        @Override
+        protected Metrics initialValue() {
+            return STARTUP;
+        }
+    };
+
+    private final String run;
+    private final Instant started = Instant.now();
+    private final long startedNanos = System.nanoTime();
+    private volatile long finishedNanos;
+    private final Map<String, Histogram> timers = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private final AtomicLong peakHeap = new AtomicLong();
+    private final Set<String> heapPools = new HashSet<>();
+    private final List<NotificationEmitter> gcEmitters = new ArrayList<>();
+    private final NotificationListener gcListener = this::onGc;
+    private final Thread liveLog;
+
+    private Metrics(String run, Duration logInterval, boolean watchHeap) {
+        this.run = run;
+        if (watchHeap) {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    heapPools.add(pool.getName());
+                }
+            }
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gc instanceof NotificationEmitter emitter) {
+                    emitter.addNotificationListener(gcListener, null, null);
+                    gcEmitters.add(emitter);
+                }
+            }
+            sampleHeap();
+        }
+        if (logInterval.isZero() || logInterval.isNegative()) {
+            liveLog = null;
+        } else {
+            liveLog = Thread.ofPlatform().daemon().name("metrics-log").start(() -> {
+                try {
+                    while (true) {
+                        Thread.sleep(logInterval.toMillis());
+                        System.out.println("[*] Metrics: " + summary());
+                    }
+                } catch (InterruptedException ignored) {}
+            });
+        }
+    }
+
+    static Metrics current() {
+        return CURRENT.get();
+    }
+
+    // Starts a run and makes it current on this thread and the threads started from it, until
+    // finish(). With a positive interval a one-line summary is printed that often while the run
+    // is going.
+    static Metrics begin(String run, Duration logInterval) {
+        Metrics m = new Metrics(run, logInterval, true);
+        CURRENT.set(m);
+        return m;
+    }
+
+    // Makes m current on this thread (for threads that did not inherit it, like HTTP handlers);
+    // returns the run it replaces, to be bound back when done
+    static Metrics bind(Metrics m) {
+        Metrics previous = CURRENT.get();
+        CURRENT.set(m);
+        return previous;
+    }
+
+    void time(String stage, long startedNanos) {
+        timer(stage).record(System.nanoTime() - startedNanos);
+    }
+
+    void count(String name) {
+        add(name, 1);
+    }
+
+    void add(String name, long delta) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+    }
+
+    Histogram timer(String stage) {
+        return timers.computeIfAbsent(stage, k -> new Histogram());
+    }
+
+    long counter(String name) {
+        LongAdder a = counters.get(name);
+        return a == null ? 0 : a.sum();
+    }
+
+    long peakHeapBytes() {
+        sampleHeap();
+        return peakHeap.get();
+    }
+
+    long elapsedMillis() {
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMillis(end - startedNanos);
+    }
+
+    // Ends the run: stops the live log and the heap watch. Recording afterwards is still harmless.
+    void finish() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        if (finishedNanos != 0) {
+            return;
+        }
+        sampleHeap();
+        finishedNanos = System.nanoTime();
+        if (liveLog != null) {
+            liveLog.interrupt();
+        }
+        for (NotificationEmitter emitter : gcEmitters) {
+            try {
+                emitter.removeNotificationListener(gcListener);
+            } catch (Exception ignored) {}
+        }
+    }
+
+    // Appends the run to file: one JSON object per line, or CSV rows when the name ends in .csv.
+    void appendTo(Path file) throws IOException {
+        String text;
+        if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+            boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+            text = (fresh ? "run,started,metric,count,p50_ms,p95_ms,p99_ms,max_ms,mean_ms,value\n" : "") + toCsv();
+        } else {
+            text = toJson() + "\n";
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    String toJson() throws IOException {
+        StringWriter sw = new StringWriter();
+        JsonWriter w = new JsonWriter(sw);
+        w.beginObject();
+        w.name("run").value(run);
+        w.name("started").value(started.toString());
+        w.name("elapsed_ms").value(elapsedMillis());
+        w.name("peak_heap_bytes").value(peakHeapBytes());
+        w.name("stages").beginObject();
+        for (Map.Entry<String, Histogram> e : timers.entrySet()) {
+            Histogram h = e.getValue();
+            w.name(e.getKey()).beginObject();
+            w.name("count").value(h.count());
+            w.name("p50_ms").value(ms(h.percentile(0.50)));
+            w.name("p95_ms").value(ms(h.percentile(0.95)));
+            w.name("p99_ms").value(ms(h.percentile(0.99)));
+            w.name("max_ms").value(ms(h.max()));
+            w.name("mean_ms").value(ms(h.mean()));
+            w.name("total_ms").value(ms(h.total()));
+            w.endObject();
+        }
+        w.endObject();
+        w.name("counters").beginObject();
+        for (Map.Entry<String, LongAdder> e : counters.entrySet()) {
+            w.name(e.getKey()).value(e.getValue().sum());
+        }
+        w.endObject();
+        w.name("cache_hit_rates").beginObject();
+        for (Map.Entry<String, Double> e : hitRates().entrySet()) {
+            w.name(e.getKey()).value(e.getValue());
+        }
+        w.endObject();
+        w.endObject();
+        w.flush();
+        return sw.toString();
+    }
+
+    // Stage rows carry the histogram, with the total time in value; other rows only have a value.
+    private String toCsv() throws IOException {
+        StringWriter sw = new StringWriter();
+        String prefix = csv(run) + "," + started + ",";
+        row(sw, prefix, "elapsed_ms", "", String.valueOf(elapsedMillis()));
+        row(sw, prefix, "peak_heap_bytes", "", String.valueOf(peakHeapBytes()));
+        for (Map.Entry<String, Histogram> e : timers.entrySet()) {
+            Histogram h = e.getValue();
+            sw.write(prefix + csv(e.getKey()) + "," + h.count() + "," + ms(h.percentile(0.50)) + ","
+                    + ms(h.percentile(0.95)) + "," + ms(h.percentile(0.99)) + "," + ms(h.max()) + ","
+                    + ms(h.mean()) + "," + ms(h.total()) + "\n");
+        }
+        for (Map.Entry<String, LongAdder> e : counters.entrySet()) {
+            row(sw, prefix, e.getKey(), "", String.valueOf(e.getValue().sum()));
+        }
+        for (Map.Entry<String, Double> e : hitRates().entrySet()) {
+            row(sw, prefix, e.getKey() + ".hit_rate", "", String.valueOf(e.getValue()));
+        }
+        return sw.toString();
+    }
+
+    private static void row(Writer w, String prefix, String metric, String count, String value) throws IOException {
+        w.write(prefix + csv(metric) + "," + count + ",,,,,," + value + "\n");
+    }
+
+    // One line for the console: elapsed time, heap and the p95 of every stage
+    String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(elapsedMillis()).append(" ms, peak heap ").append(peakHeapBytes() / (1024 * 1024)).append(" MB");
+        for (Map.Entry<String, Histogram> e : timers.entrySet()) {
+            Histogram h = e.getValue();
+            sb.append(", ").append(e.getKey()).append(' ').append(h.count()).append("x p95 ")
+              .append(String.format(Locale.ROOT, "%.1f", ms(h.percentile(0.95)))).append(" ms");
+        }
+        long retries = counter("http.retries");
+        if (retries > 0) {
+            sb.append(", ").append(retries).append(" retries");
+        }
+        for (Map.Entry<String, Double> e : hitRates().entrySet()) {
+            sb.append(", ").append(e.getKey()).append(" hits ").append(Math.round(e.getValue() * 100)).append('%');
+        }
+        return sb.toString();
+    }
+
+    // "<name>.hit" / "<name>.miss" counter pairs as hit ratios keyed by name
+    private Map<String, Double> hitRates() {
+        Map<String, Double> rates = new ConcurrentSkipListMap<>();
+        for (String name : counters.keySet()) {
+            if (name.endsWith(".hit")) {
+                String base = name.substring(0, name.length() - ".hit".length());
+                long hit = counter(name), miss = counter(base + ".miss");
+                if (hit + miss > 0) {
+                    rates.put(base, Math.round(1000.0 * hit / (hit + miss)) / 1000.0);
+                }
+            }
+        }
+        for (String name : counters.keySet()) {
+            if (name.endsWith(".miss")) {
+                rates.putIfAbsent(name.substring(0, name.length() - ".miss".length()), 0.0);
+            }
+        }
+        return rates;
+    }
+
+    private void onGc(Notification n, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(n.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) n.getUserData());
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> e : info.getGcInfo().getMemoryUsageBeforeGc().entrySet()) {
+            if (heapPools.contains(e.getKey())) {
+                used += e.getValue().getUsed();
+            }
+        }
+        peakHeap.accumulateAndGet(used, Math::max);
+    }
+
+    private void sampleHeap() {
+        if (finishedNanos == 0) {
+            peakHeap.accumulateAndGet(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max);
+        }
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String csv(String s) {
+        return s.contains(",") || s.contains("\"") || s.contains("\n") ? "\"" + s.replace("\"", "\"\"") + "\"" : s;
+    }
+
+    // Latency histogram with log-linear buckets: exact below 16 us, then 16 buckets per power of
+    // two, so a percentile is off by at most about 3% and every stage costs a fixed 8 KB.
+    static final class Histogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB = 1 << SUB_BITS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray((64 - SUB_BITS + 1) * SUB);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            buckets.incrementAndGet(index(micros));
+            count.increment();
+            totalMicros.add(micros);
+            maxMicros.accumulateAndGet(micros, Math::max);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        long total() {
+            return totalMicros.sum();
+        }
+
+        long max() {
+            return maxMicros.get();
+        }
+
+        long mean() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalMicros.sum() / n;
+        }
+
+        // Value at quantile q (0..1) in microseconds: the middle of the bucket holding that rank
+        long percentile(double q) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(q * n));
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(maxMicros.get(), lowerBound(i) + width(i) / 2);
+                }
+            }
+            return maxMicros.get();
+        }
+
+        private static int index(long v) {
+            if (v < SUB) {
+                return (int) v;
+            }
+            int exp = 63 - Long.numberOfLeadingZeros(v);
+            int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+            return (exp - SUB_BITS + 1) * SUB + sub;
+        }
+
+        private static long lowerBound(int i) {
+            return i < SUB ? i : (long) (SUB + i % SUB) << (i / SUB - 1);
+        }
+
+        private static long width(int i) {
+            return i < SUB ? 1 : 1L << (i / SUB - 1);
+        }
+    }
+}
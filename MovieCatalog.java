@@ -0,0 +1,554 @@
+// MovieCatalog.java
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Offline source for searches and details: a read-only store of OMDb movie records, memory-mapped,
+// with an inverted index from title tokens to records and an index by year. Built from a JSONL
+// dump (one OMDb detail record per line) with
+//
+//   java MovieCatalog <dump.jsonl> <store>
+//
+// Records are stored newest first, so posting lists in record order are already in report order,
+// and a search is an intersection of sorted int lists followed by decoding one page of records.
+// Only absolute reads are used on the mapped buffer, so one instance serves every thread.
+//
+// Layout (big-endian): magic, then the section offsets, then the sections
+//   records    int[count]     offset of each record in the data section
+//   byId       int[count]     record numbers sorted by imdbID
+//   tokens     int[tokens+1]  offset of each token in the token section (tokens sorted by bytes)
+//   postings   int[tokens+1]  start of each token's list in the list section
+//   years      int[years]     distinct years, ascending
+//   yearLists  int[years+1]   start of each year's list in the list section
+//   lists      int[]          record numbers, ascending within each list
+//   tokenBytes                UTF-8 tokens
+//   data                      per record, FIELDS as u16 length + UTF-8 (0xFFFF = null)
+final class MovieCatalog {
+
+    private static final long MAGIC = 0x4354504341543031L; // "CTPCAT01"
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final int SECTIONS = 9;
+    private static final int HEADER_BYTES = 8 + 4 * (3 + SECTIONS);
+    // Search hits carry what an OMDb ?s= result carries; details decode every field
+    private static final int SEARCH_FIELDS = 5;
+    // A report reads up to maxPages pages of the same search; they share one intersection
+    private static final int RECENT_MATCHES = 32;
+
+    private final ByteBuffer buf;
+    private final int count;
+    private final int tokenCount;
+    private final int yearCount;
+    private final int records, byId, tokens, postings, years, yearLists, lists, tokenBytes, data;
+    private final Map<String, int[]> recent = new LinkedHashMap<>(RECENT_MATCHES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+            return size() > RECENT_MATCHES;
+        }
+    };
+
+    private MovieCatalog(Path file, ByteBuffer buf) throws IOException {
+        this.buf = buf;
+        if (buf.capacity() < HEADER_BYTES || buf.getLong(0) != MAGIC) {
+            throw new IOException("Not a movie catalogue: " + file);
+        }
+        count = buf.getInt(8);
+        tokenCount = buf.getInt(12);
+        yearCount = buf.getInt(16);
+        int[] s = new int[SECTIONS];
+        for (int i = 0; i < SECTIONS; i++) {
+            s[i] = buf.getInt(20 + 4 * i);
+        }
+        records = s[0]; byId = s[1]; tokens = s[2]; postings = s[3];
+        years = s[4]; yearLists = s[5]; lists = s[6]; tokenBytes = s[7]; data = s[8];
+    }
+
+    // Maps the store named by catalog.file; null (the live OMDb source) when the key is unset.
+    static MovieCatalog open(Properties props) {
+        String name = props.getProperty("catalog.file", "").trim();
+        if (name.isEmpty()) {
+            return null;
+        }
+        Path file = Path.of(name);
+        try {
+            MovieCatalog catalog = map(file);
+            System.out.println("[*] Offline catalogue: " + file + " (" + catalog.size() + " titles, "
+                    + catalog.tokenCount + " title tokens)");
+            return catalog;
+        } catch (IOException e) {
+            throw new IllegalStateException("Movie catalogue unavailable: " + file + " (" + e.getMessage() + ")", e);
+        }
+    }
+
+    static MovieCatalog map(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file)) {
+            if (ch.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalogue larger than 2 GB: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            return new MovieCatalog(file, buf);
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    // One page of an ?s= search: every query token must appear in the title, newest titles first.
+    PagedSearch.Page<LatestMoviesToPdf.Movie> search(String query, String year, int page) {
+        int[] hits = match(query, year);
+        int from = (page - 1) * PagedSearch.PAGE_SIZE;
+        if (from >= hits.length) {
+            return new PagedSearch.Page<>(List.of(), hits.length);
+        }
+        int to = Math.min(hits.length, from + PagedSearch.PAGE_SIZE);
+        List<LatestMoviesToPdf.Movie> items = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            items.add(record(hits[i], SEARCH_FIELDS));
+        }
+        return new PagedSearch.Page<>(items, hits.length);
+    }
+
+    // The full record for an imdbID, or null when the catalogue does not have it.
+    LatestMoviesToPdf.Movie details(String imdbID) {
+        if (imdbID == null) {
+            return null;
+        }
+        byte[] key = imdbID.getBytes(StandardCharsets.UTF_8);
+        int lo = 0, hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int record = buf.getInt(byId + 4 * mid);
+            int c = compare(recordField(record, 2), key);
+            if (c == 0) {
+                return record(record, FIELDS.length);
+            }
+            if (c < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return null;
+    }
+
+    // Record numbers matching every token of the query (and the year, if given), ascending
+    int[] match(String query, String year) {
+        String key = query + "\u0000" + year;
+        int[] hits;
+        synchronized (recent) {
+            hits = recent.get(key);
+        }
+        if (hits == null) {
+            hits = lookup(query, year);
+            synchronized (recent) {
+                recent.put(key, hits);
+            }
+        }
+        return hits;
+    }
+
+    private int[] lookup(String query, String year) {
+        List<String> terms = new ArrayList<>(new TreeSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return new int[0];
+        }
+        List<int[]> ranges = new ArrayList<>(terms.size() + 1);
+        for (String term : terms) {
+            int t = findToken(term.getBytes(StandardCharsets.UTF_8));
+            if (t < 0) {
+                return new int[0];
+            }
+            ranges.add(new int[] {buf.getInt(postings + 4 * t), buf.getInt(postings + 4 * (t + 1))});
+        }
+        int y = parseYear(year);
+        if (y != 0) {
+            int i = Arrays.binarySearch(yearArray(), y);
+            if (i < 0) {
+                return new int[0];
+            }
+            ranges.add(new int[] {buf.getInt(yearLists + 4 * i), buf.getInt(yearLists + 4 * (i + 1))});
+        }
+        // Shortest list first keeps the intersection bounded by the rarest term
+        ranges.sort(Comparator.comparingInt(r -> r[1] - r[0]));
+        int[] result = readList(ranges.get(0));
+        for (int r = 1; r < ranges.size() && result.length > 0; r++) {
+            result = intersect(result, ranges.get(r));
+        }
+        return result;
+    }
+
+    private int[] yearArray() {
+        int[] ys = new int[yearCount];
+        for (int i = 0; i < yearCount; i++) {
+            ys[i] = buf.getInt(years + 4 * i);
+        }
+        return ys;
+    }
+
+    private int[] readList(int[] range) {
+        int[] out = new int[range[1] - range[0]];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = buf.getInt(lists + 4 * (range[0] + i));
+        }
+        return out;
+    }
+
+    private int[] intersect(int[] a, int[] range) {
+        int[] out = new int[a.length];
+        int n = 0, i = 0, j = range[0];
+        while (i < a.length && j < range[1]) {
+            int b = buf.getInt(lists + 4 * j);
+            if (a[i] == b) {
+                out[n++] = a[i++];
+                j++;
+            } else if (a[i] < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private int findToken(byte[] term) {
+        int lo = 0, hi = tokenCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int start = buf.getInt(tokens + 4 * mid);
+            int end = buf.getInt(tokens + 4 * (mid + 1));
+            byte[] candidate = new byte[end - start];
+            buf.get(tokenBytes + start, candidate);
+            int c = compare(candidate, term);
+            if (c == 0) {
+                return mid;
+            }
+            if (c < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    private LatestMoviesToPdf.Movie record(int record, int fields) {
+        String[] v = new String[fields];
+        int pos = data + buf.getInt(records + 4 * record);
+        for (int f = 0; f < fields; f++) {
+            int len = Short.toUnsignedInt(buf.getShort(pos));
+            pos += 2;
+            if (len != NULL_LENGTH) {
+                byte[] b = new byte[len];
+                buf.get(pos, b);
+                v[f] = new String(b, StandardCharsets.UTF_8);
+                pos += len;
+            }
+        }
+        return toMovie(v);
+    }
+
+    private byte[] recordField(int record, int field) {
+        int pos = data + buf.getInt(records + 4 * record);
+        for (int f = 0; f < field; f++) {
+            int len = Short.toUnsignedInt(buf.getShort(pos));
+            pos += 2 + (len == NULL_LENGTH ? 0 : len);
+        }
+        int len = Short.toUnsignedInt(buf.getShort(pos));
+        byte[] b = new byte[len == NULL_LENGTH ? 0 : len];
+        buf.get(pos + 2, b);
+        return b;
+    }
+
+    // --- Fields, in stored order; the first SEARCH_FIELDS are what a search hit carries ---
+
+    private static final String[] FIELDS = {"Title", "Year", "imdbID", "Type", "Poster", "Genre", "Director",
+            "Actors", "imdbRating", "Runtime", "Language", "Country", "Rated"};
+
+    private static String[] fields(LatestMoviesToPdf.Movie m) {
+        return new String[] {m.Title, m.Year, m.imdbID, m.Type, m.Poster, m.Genre, m.Director,
+                m.Actors, m.imdbRating, m.Runtime, m.Language, m.Country, m.Rated};
+    }
+
+    private static LatestMoviesToPdf.Movie toMovie(String[] v) {
+        LatestMoviesToPdf.Movie m = new LatestMoviesToPdf.Movie();
+        m.Title = v[0];
+        m.Year = v[1];
+        m.imdbID = v[2];
+        m.Type = v[3];
+        m.Poster = v[4];
+        if (v.length > SEARCH_FIELDS) {
+            m.Genre = v[5];
+            m.Director = v[6];
+            m.Actors = v[7];
+            m.imdbRating = v[8];
+            m.Runtime = v[9];
+            m.Language = v[10];
+            m.Country = v[11];
+            m.Rated = v[12];
+        }
+        m.Response = "True";
+        return m;
+    }
+
+    // Lower-cased words of letters and digits, with accents removed, so "Amélie" matches "amelie"
+    static List<String> tokenize(String s) {
+        List<String> out = new ArrayList<>();
+        if (s == null) {
+            return out;
+        }
+        String folded = Normalizer.normalize(s, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        for (String t : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!t.isEmpty()) {
+                out.add(t);
+            }
+        }
+        return out;
+    }
+
+    // "2019", "2019–2021" and "2019–" all index under 2019; 0 when there is no year
+    static int parseYear(String s) {
+        if (s == null || s.length() < 4) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(s.substring(0, 4));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        return Arrays.compareUnsigned(a, b);
+    }
+
+    // --- Import ---
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: MovieCatalog <dump.jsonl> <store>");
+            System.exit(2);
+        }
+        try {
+            long started = System.nanoTime();
+            Path store = Path.of(args[1]);
+            int titles = build(Path.of(args[0]), store);
+            System.out.println("[*] Catalogue written: " + store + " (" + titles + " titles, "
+                    + Files.size(store) / 1024 + " KB) in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+        } catch (Exception e) {
+            System.err.println("[!] Error: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // Reads the dump, keeps the last record per imdbID (movies only, like the live ?type=movie
+    // search) and writes the store next to its final name before moving it into place.
+    static int build(Path dump, Path store) throws IOException {
+        Map<String, LatestMoviesToPdf.Movie> byImdbId = new LinkedHashMap<>();
+        int lineNo = 0, malformed = 0, skipped = 0;
+        try (BufferedReader in = Files.newBufferedReader(dump, StandardCharsets.UTF_8)) {
+            for (String line; (line = in.readLine()) != null; ) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                LatestMoviesToPdf.Movie m;
+                try {
+                    m = OmdbJson.MOVIE.fromJson(line);
+                } catch (IOException | RuntimeException e) {
+                    m = null;
+                }
+                if (m == null || m.imdbID == null || m.Title == null) {
+                    if (malformed++ < 10) {
+                        System.out.println("[!] Skipping malformed line " + lineNo);
+                    }
+                    continue;
+                }
+                if ((m.Type != null && !"movie".equalsIgnoreCase(m.Type)) || "False".equalsIgnoreCase(m.Response)) {
+                    skipped++;
+                    continue;
+                }
+                byImdbId.put(m.imdbID, m);
+            }
+        }
+        if (malformed + skipped > 0) {
+            System.out.println("[*] Import: " + malformed + " malformed lines, " + skipped + " non-movie records skipped");
+        }
+
+        List<LatestMoviesToPdf.Movie> movies = new ArrayList<>(byImdbId.values());
+        movies.sort(Comparator.comparingInt((LatestMoviesToPdf.Movie m) -> parseYear(m.Year)).reversed()
+                .thenComparing(m -> m.Title, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(m -> m.imdbID));
+        int n = movies.size();
+
+        ByteArrayOutputStream dataBytes = new ByteArrayOutputStream();
+        DataOutputStream dataOut = new DataOutputStream(dataBytes);
+        int[] recordOffsets = new int[n];
+        TreeMap<byte[], List<Integer>> tokenLists = new TreeMap<>(MovieCatalog::compare);
+        TreeMap<Integer, List<Integer>> yearLists = new TreeMap<>();
+        // The store is built in memory, so its size is checked as it grows: an oversized dump
+        // fails at the record that crosses the mapping limit, not after GBs of heap
+        long tokenBlobSize = 0, postingCount = 0;
+        for (int r = 0; r < n; r++) {
+            LatestMoviesToPdf.Movie m = movies.get(r);
+            recordOffsets[r] = dataOut.size();
+            for (String v : fields(m)) {
+                if (v == null) {
+                    dataOut.writeShort(NULL_LENGTH);
+                } else {
+                    byte[] b = utf8Prefix(v, NULL_LENGTH - 1);
+                    dataOut.writeShort(b.length);
+                    dataOut.write(b);
+                }
+            }
+            for (String t : new TreeSet<>(tokenize(m.Title))) {
+                byte[] token = t.getBytes(StandardCharsets.UTF_8);
+                List<Integer> list = tokenLists.get(token);
+                if (list == null) {
+                    tokenLists.put(token, list = new ArrayList<>());
+                    tokenBlobSize += token.length;
+                }
+                list.add(r);
+                postingCount++;
+            }
+            int y = parseYear(m.Year);
+            if (y != 0) {
+                yearLists.computeIfAbsent(y, k -> new ArrayList<>()).add(r);
+                postingCount++;
+            }
+            long size = storeSize(n, tokenLists.size(), yearLists.size(), postingCount, tokenBlobSize, dataOut.size());
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Catalogue would exceed 2 GB (at title " + (r + 1) + " of " + n + ")");
+            }
+        }
+
+        Integer[] byId = new Integer[n];
+        for (int r = 0; r < n; r++) {
+            byId[r] = r;
+        }
+        byte[][] ids = new byte[n][];
+        for (int r = 0; r < n; r++) {
+            ids[r] = movies.get(r).imdbID.getBytes(StandardCharsets.UTF_8);
+        }
+        Arrays.sort(byId, (a, b) -> compare(ids[a], ids[b]));
+
+        int tokenCount = tokenLists.size(), yearCount = yearLists.size();
+        ByteArrayOutputStream tokenBlob = new ByteArrayOutputStream();
+        int[] tokenOffsets = new int[tokenCount + 1];
+        int[] postingStarts = new int[tokenCount + 1];
+        int[] yearValues = new int[yearCount];
+        int[] yearStarts = new int[yearCount + 1];
+        List<List<Integer>> allLists = new ArrayList<>(tokenCount + yearCount);
+        int listSize = 0, t = 0;
+        for (Map.Entry<byte[], List<Integer>> e : tokenLists.entrySet()) {
+            tokenOffsets[t] = tokenBlob.size();
+            postingStarts[t++] = listSize;
+            tokenBlob.write(e.getKey());
+            allLists.add(e.getValue());
+            listSize += e.getValue().size();
+        }
+        tokenOffsets[t] = tokenBlob.size();
+        postingStarts[t] = listSize;
+        int y = 0;
+        for (Map.Entry<Integer, List<Integer>> e : yearLists.entrySet()) {
+            yearValues[y] = e.getKey();
+            yearStarts[y++] = listSize;
+            allLists.add(e.getValue());
+            listSize += e.getValue().size();
+        }
+        yearStarts[y] = listSize;
+
+        long[] sections = new long[SECTIONS];
+        long pos = HEADER_BYTES;
+        long[] sizes = {4L * n, 4L * n, 4L * (tokenCount + 1), 4L * (tokenCount + 1), 4L * yearCount,
+                4L * (yearCount + 1), 4L * listSize, tokenBlob.size(), dataBytes.size()};
+        for (int i = 0; i < SECTIONS; i++) {
+            sections[i] = pos;
+            pos += sizes[i];
+        }
+        if (pos > Integer.MAX_VALUE) {
+            throw new IOException("Catalogue would exceed 2 GB (" + n + " titles)");
+        }
+
+        Path tmp = store.resolveSibling(store.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeLong(MAGIC);
+            out.writeInt(n);
+            out.writeInt(tokenCount);
+            out.writeInt(yearCount);
+            for (long s : sections) {
+                out.writeInt((int) s);
+            }
+            writeInts(out, recordOffsets);
+            for (Integer r : byId) {
+                out.writeInt(r);
+            }
+            writeInts(out, tokenOffsets);
+            writeInts(out, postingStarts);
+            writeInts(out, yearValues);
+            writeInts(out, yearStarts);
+            for (List<Integer> list : allLists) {
+                for (int r : list) {
+                    out.writeInt(r);
+                }
+            }
+            tokenBlob.writeTo(out);
+            dataBytes.writeTo(out);
+        }
+        try {
+            Files.move(tmp, store, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, store, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return n;
+    }
+
+    // Bytes of a store with these section contents, as laid out by build
+    private static long storeSize(int titles, int tokens, int years, long postings, long tokenBytes, long dataBytes) {
+        return HEADER_BYTES + 8L * titles + 8L * (tokens + 1) + 4L * years + 4L * (years + 1)
+                + 4L * postings + tokenBytes + dataBytes;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int v : values) {
+            out.writeInt(v);
+        }
+    }
+
+    // Field values are capped at 64 KB, cut on a character boundary
+    private static byte[] utf8Prefix(String s, int maxBytes) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        if (b.length <= maxBytes) {
+            return b;
+        }
+        int end = maxBytes;
+        while (end > 0 && (b[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return Arrays.copyOf(b, end);
+    }
+}
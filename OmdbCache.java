@@ -0,0 +1,353 @@
+// OmdbCache.java
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+// On-disk cache of raw OMDb response bodies, keyed by the normalized request (endpoint plus sorted
+// parameters, without the API key). Each entry is one file: a line with the write time in epoch
+// millis, then the body. Entries are read and written as streams so a body is never buffered whole.
+// Writes go to a temp file that is atomically moved into place, so runs sharing the directory
+// never see a torn entry. The file's modification time doubles as the LRU
+// clock: hits touch it and eviction removes the oldest files once the size cap is exceeded.
+final class OmdbCache {
+
+    enum Endpoint { SEARCH, DETAIL }
+
+    interface Source {
+        InputStream open() throws IOException, InterruptedException;
+    }
+
+    interface Decoder<T> {
+        T decode(InputStream in) throws IOException;
+    }
+
+    private static final String SUFFIX = ".json";
+
+    private final Path dir;
+    private final boolean enabled;
+    private final Duration searchTtl;
+    private final Duration detailTtl;
+    private final long maxBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong approxBytes = new AtomicLong();
+    private final Object evictLock = new Object();
+
+    OmdbCache(Path dir, boolean enabled, Duration searchTtl, Duration detailTtl, long maxBytes) {
+        this.dir = dir;
+        this.enabled = enabled;
+        this.searchTtl = searchTtl;
+        this.detailTtl = detailTtl;
+        this.maxBytes = maxBytes;
+        if (enabled) {
+            try {
+                Files.createDirectories(dir);
+                approxBytes.set(totalBytes());
+            } catch (IOException e) {
+                System.err.println("[!] Cache directory unavailable: " + dir + " (" + e.getMessage() + ")");
+            }
+        }
+    }
+
+    static OmdbCache open(Properties props) {
+        return new OmdbCache(
+                Path.of(props.getProperty("cache.dir", ".omdb-cache")),
+                Boolean.parseBoolean(props.getProperty("cache.enabled", "true")),
+                Duration.ofMinutes(Long.parseLong(props.getProperty("cache.ttl.search.minutes", "60"))),
+                Duration.ofMinutes(Long.parseLong(props.getProperty("cache.ttl.detail.minutes", "1440"))),
+                Long.parseLong(props.getProperty("cache.max.mb", "64")) * 1024 * 1024);
+    }
+
+    // Decodes the cached body when there is a fresh one; otherwise decodes straight from the source
+    // while copying the bytes into a new entry, which is kept only if the value is cacheable.
+    <T> T readThrough(Endpoint endpoint, Map<String, String> params, Source source, Decoder<T> decoder,
+                      Predicate<T> cacheable) throws IOException, InterruptedException {
+        InputStream cached = open(endpoint, params);
+        if (cached != null) {
+            try (InputStream in = cached) {
+                return decoder.decode(in);
+            } catch (IOException e) {
+                // Unreadable entry: fetch again and overwrite it.
+            }
+        }
+        try (Pending pending = begin(endpoint, params);
+             InputStream in = pending.tee(source.open())) {
+            T value = decoder.decode(in);
+            if (value != null && cacheable.test(value)) {
+                in.transferTo(OutputStream.nullOutputStream());
+                pending.commit();
+            }
+            return value;
+        }
+    }
+
+    // Opens the cached body for streaming, or returns null when absent, expired or unreadable.
+    InputStream open(Endpoint endpoint, Map<String, String> params) {
+        if (!enabled) {
+            return null;
+        }
+        Path file = fileFor(endpoint, params);
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(Files.newInputStream(file));
+            long writtenAt = readHeader(in);
+            if (writtenAt >= 0 && System.currentTimeMillis() - writtenAt <= ttl(endpoint).toMillis()) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                hits.incrementAndGet();
+                Metrics.current().count(metricName(endpoint) + ".hit");
+                return in;
+            }
+        } catch (NoSuchFileException ignored) {
+        } catch (IOException e) {
+            // A damaged entry is treated as a miss and overwritten by the next write.
+        }
+        closeQuietly(in);
+        misses.incrementAndGet();
+        Metrics.current().count(metricName(endpoint) + ".miss");
+        return null;
+    }
+
+    private static String metricName(Endpoint endpoint) {
+        return "cache." + endpoint.name().toLowerCase(Locale.ROOT);
+    }
+
+    // Starts a new entry. The body is captured while the caller reads the response through tee(),
+    // and only becomes visible to other readers on commit().
+    Pending begin(Endpoint endpoint, Map<String, String> params) {
+        return new Pending(enabled ? fileFor(endpoint, params) : null);
+    }
+
+    final class Pending implements Closeable {
+        private final Path file;
+        private Path tmp;
+        private OutputStream out;
+        private long size;
+
+        private Pending(Path file) {
+            this.file = file;
+            if (file != null) {
+                try {
+                    tmp = Files.createTempFile(dir, "entry-", ".tmp");
+                    out = new BufferedOutputStream(Files.newOutputStream(tmp));
+                    byte[] header = (System.currentTimeMillis() + "\n").getBytes(StandardCharsets.US_ASCII);
+                    out.write(header);
+                    size = header.length;
+                } catch (IOException e) {
+                    System.err.println("[!] Cache write failed: " + e.getMessage());
+                    discard();
+                }
+            }
+        }
+
+        // Copies every byte read from the response into the pending entry.
+        InputStream tee(InputStream in) {
+            if (out == null) {
+                return in;
+            }
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        capture(new byte[] {(byte) b}, 0, 1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buf, int off, int len) throws IOException {
+                    int n = super.read(buf, off, len);
+                    if (n > 0) {
+                        capture(buf, off, n);
+                    }
+                    return n;
+                }
+            };
+        }
+
+        private void capture(byte[] buf, int off, int len) {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.write(buf, off, len);
+                size += len;
+            } catch (IOException e) {
+                discard();
+            }
+        }
+
+        // Publishes the entry. The caller must have read the response to the end.
+        void commit() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.close();
+                out = null;
+                try {
+                    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                tmp = null;
+                if (approxBytes.addAndGet(size) > maxBytes) {
+                    evict();
+                }
+            } catch (IOException e) {
+                System.err.println("[!] Cache write failed: " + e.getMessage());
+            } finally {
+                discard();
+            }
+        }
+
+        // Drops the entry unless it was committed.
+        @Override
+        public void close() {
+            discard();
+        }
+
+        private void discard() {
+            closeQuietly(out);
+            out = null;
+            if (tmp != null) {
+                try { Files.deleteIfExists(tmp); } catch (IOException ignored) {}
+                tmp = null;
+            }
+        }
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    String stats() {
+        long h = hits.get(), m = misses.get();
+        long rate = h + m == 0 ? 0 : Math.round(100.0 * h / (h + m));
+        return h + " hits, " + m + " misses (" + rate + "% hit rate)";
+    }
+
+    // Drops least recently used entries until the directory is back under three quarters of the cap.
+    private void evict() throws IOException {
+        synchronized (evictLock) {
+            List<Path> files = new ArrayList<>();
+            long total = 0;
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+                for (Path p : ds) {
+                    files.add(p);
+                    total += sizeOf(p);
+                }
+            }
+            long target = maxBytes / 4 * 3;
+            if (total > maxBytes) {
+                files.sort(Comparator.comparingLong(OmdbCache::lastModified));
+                for (Path p : files) {
+                    if (total <= target) {
+                        break;
+                    }
+                    long size = sizeOf(p);
+                    if (Files.deleteIfExists(p)) {
+                        total -= size;
+                    }
+                }
+            }
+            approxBytes.set(total);
+        }
+    }
+
+    private long totalBytes() throws IOException {
+        long total = 0;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path p : ds) {
+                total += sizeOf(p);
+            }
+        }
+        return total;
+    }
+
+    private Duration ttl(Endpoint endpoint) {
+        return endpoint == Endpoint.SEARCH ? searchTtl : detailTtl;
+    }
+
+    private Path fileFor(Endpoint endpoint, Map<String, String> params) {
+        return dir.resolve(endpoint.name().toLowerCase(Locale.ROOT) + "-" + sha256(key(endpoint, params)) + SUFFIX);
+    }
+
+    // Same request, same key: parameter order, case and surrounding whitespace do not matter.
+    static String key(Endpoint endpoint, Map<String, String> params) {
+        StringBuilder sb = new StringBuilder(endpoint.name());
+        char sep = '?';
+        for (Map.Entry<String, String> e : new TreeMap<>(params).entrySet()) {
+            String value = e.getValue() == null ? "" : e.getValue().trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            sb.append(sep).append(e.getKey().toLowerCase(Locale.ROOT)).append('=').append(value);
+            sep = '&';
+        }
+        return sb.toString();
+    }
+
+    private static String sha256(String s) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Reads the "<epoch millis>\n" line in front of the body; -1 if it is missing or malformed.
+    private static long readHeader(InputStream in) throws IOException {
+        long value = 0;
+        int digits = 0;
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b < '0' || b > '9' || ++digits > 19) {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return digits == 0 ? -1 : value;
+    }
+
+    private static void closeQuietly(Closeable c) {
+        if (c != null) {
+            try { c.close(); } catch (IOException ignored) {}
+        }
+    }
+
+    private static long sizeOf(Path p) {
+        try { return Files.size(p); } catch (IOException e) { return 0; }
+    }
+
+    private static long lastModified(Path p) {
+        try { return Files.getLastModifiedTime(p).toMillis(); } catch (IOException e) { return 0; }
+    }
+}
@@ -0,0 +1,201 @@
+// OmdbJson.java
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Shared, thread-safe decoding of OMDb responses straight from the response stream. The hand-written
+// adapters keep only the fields a report renders; everything else (Plot, Ratings, Awards, ...) is
+// skipped by the tokenizer and never materialized as strings or objects.
+final class OmdbJson {
+
+    static final TypeAdapter<LatestMoviesToPdf.Movie> MOVIE = new MovieAdapter();
+    static final TypeAdapter<LatestMoviesToPdf.SearchResult> SEARCH = new SearchResultAdapter();
+
+    static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LatestMoviesToPdf.Movie.class, MOVIE)
+            .registerTypeAdapter(LatestMoviesToPdf.SearchResult.class, SEARCH)
+            .create();
+
+    private static final int DECODE_BUFFER = 1024;
+
+    private OmdbJson() {}
+
+    static LatestMoviesToPdf.Movie readMovie(InputStream in) throws IOException {
+        return read(MOVIE, in);
+    }
+
+    static LatestMoviesToPdf.SearchResult readSearch(InputStream in) throws IOException {
+        return read(SEARCH, in);
+    }
+
+    // Decodes any other type with the shared Gson, reading UTF-8 from the stream
+    static <T> T read(Class<T> type, InputStream in) throws IOException {
+        try {
+            return GSON.fromJson(reader(in), type);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed OMDb response: " + e.getMessage(), e);
+        }
+    }
+
+    private static <T> T read(TypeAdapter<T> adapter, InputStream in) throws IOException {
+        JsonReader reader = new JsonReader(reader(in));
+        try {
+            return reader.peek() == JsonToken.END_DOCUMENT ? null : adapter.read(reader);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed OMDb response: " + e.getMessage(), e);
+        }
+    }
+
+    // OMDb bodies are a few KB at most; a small decode buffer keeps per-response garbage low
+    // (InputStreamReader would allocate 8 KB for every response).
+    private static Reader reader(InputStream in) {
+        return Channels.newReader(Channels.newChannel(in), StandardCharsets.UTF_8.newDecoder(), DECODE_BUFFER);
+    }
+
+    private static String nextString(JsonReader in) throws IOException {
+        switch (in.peek()) {
+            case NULL:
+                in.nextNull();
+                return null;
+            case STRING:
+            case NUMBER:
+                return in.nextString();
+            case BOOLEAN:
+                return String.valueOf(in.nextBoolean());
+            default:
+                in.skipValue();
+                return null;
+        }
+    }
+
+    private static void writeField(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static final class MovieAdapter extends TypeAdapter<LatestMoviesToPdf.Movie> {
+        @Override
+        public LatestMoviesToPdf.Movie read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            LatestMoviesToPdf.Movie m = new LatestMoviesToPdf.Movie();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "Title": m.Title = nextString(in); break;
+                    case "Year": m.Year = nextString(in); break;
+                    case "imdbID": m.imdbID = nextString(in); break;
+                    case "Type": m.Type = nextString(in); break;
+                    case "Poster": m.Poster = nextString(in); break;
+                    case "Genre": m.Genre = nextString(in); break;
+                    case "Director": m.Director = nextString(in); break;
+                    case "Actors": m.Actors = nextString(in); break;
+                    case "imdbRating": m.imdbRating = nextString(in); break;
+                    case "Runtime": m.Runtime = nextString(in); break;
+                    case "Language": m.Language = nextString(in); break;
+                    case "Country": m.Country = nextString(in); break;
+                    case "Rated": m.Rated = nextString(in); break;
+                    case "Response": m.Response = nextString(in); break;
+                    case "Error": m.Error = nextString(in); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return m;
+        }
+
+        @Override
+        public void write(JsonWriter out, LatestMoviesToPdf.Movie m) throws IOException {
+            if (m == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeField(out, "Title", m.Title);
+            writeField(out, "Year", m.Year);
+            writeField(out, "imdbID", m.imdbID);
+            writeField(out, "Type", m.Type);
+            writeField(out, "Poster", m.Poster);
+            writeField(out, "Genre", m.Genre);
+            writeField(out, "Director", m.Director);
+            writeField(out, "Actors", m.Actors);
+            writeField(out, "imdbRating", m.imdbRating);
+            writeField(out, "Runtime", m.Runtime);
+            writeField(out, "Language", m.Language);
+            writeField(out, "Country", m.Country);
+            writeField(out, "Rated", m.Rated);
+            writeField(out, "Response", m.Response);
+            writeField(out, "Error", m.Error);
+            out.endObject();
+        }
+    }
+
+    private static final class SearchResultAdapter extends TypeAdapter<LatestMoviesToPdf.SearchResult> {
+        @Override
+        public LatestMoviesToPdf.SearchResult read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            LatestMoviesToPdf.SearchResult r = new LatestMoviesToPdf.SearchResult();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "Response": r.Response = nextString(in); break;
+                    case "Error": r.Error = nextString(in); break;
+                    case "totalResults": r.totalResults = nextString(in); break;
+                    case "Search":
+                        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+                            in.skipValue();
+                            break;
+                        }
+                        List<LatestMoviesToPdf.Movie> hits = new ArrayList<>(10);
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            hits.add(MOVIE.read(in));
+                        }
+                        in.endArray();
+                        r.Search = hits.toArray(new LatestMoviesToPdf.Movie[0]);
+                        break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return r;
+        }
+
+        @Override
+        public void write(JsonWriter out, LatestMoviesToPdf.SearchResult r) throws IOException {
+            if (r == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (r.Search != null) {
+                out.name("Search").beginArray();
+                for (LatestMoviesToPdf.Movie m : r.Search) {
+                    MOVIE.write(out, m);
+                }
+                out.endArray();
+            }
+            writeField(out, "totalResults", r.totalResults);
+            writeField(out, "Response", r.Response);
+            writeField(out, "Error", r.Error);
+            out.endObject();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+// PagedSearch.java
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Reads every page of an OMDb ?s= search. Page 1 is fetched up front to learn totalResults; the
+// remaining pages are requested concurrently on virtual threads. Iteration streams hits in page
+// order as soon as each page has arrived, skipping imdbIDs already seen on an earlier page.
+// Interrupting the iterating thread cancels the outstanding page requests.
+final class PagedSearch<T> implements Iterable<T> {
+
+    static final int PAGE_SIZE = 10;
+    // OMDb refuses page numbers above 100
+    static final int MAX_OMDB_PAGES = 100;
+
+    interface PageFetcher<T> {
+        Page<T> fetch(int page) throws Exception;
+    }
+
+    static final class Page<T> {
+        final List<T> items;
+        final int totalResults;
+
+        Page(List<T> items, int totalResults) {
+            this.items = items;
+            this.totalResults = totalResults;
+        }
+
+        static <T> Page<T> empty() {
+            return new Page<>(Collections.emptyList(), 0);
+        }
+    }
+
+    private final List<CompletableFuture<Page<T>>> pages = new ArrayList<>();
+    private final List<Thread> fetchers = new ArrayList<>();
+    private final Function<T, String> idOf;
+    private Consumer<? super T> onHit = t -> {};
+    private int expected;
+
+    private PagedSearch(Function<T, String> idOf) {
+        this.idOf = idOf;
+    }
+
+    // Fetches page 1 on the calling thread (so its errors reach the caller) and starts the rest.
+    static <T> PagedSearch<T> start(PageFetcher<T> fetcher, Function<T, String> idOf, int maxPages, int concurrency) throws Exception {
+        PagedSearch<T> search = new PagedSearch<>(idOf);
+        Page<T> first = fetcher.fetch(1);
+        search.pages.add(CompletableFuture.completedFuture(first));
+
+        int available = (first.totalResults + PAGE_SIZE - 1) / PAGE_SIZE;
+        int last = Math.min(available, Math.min(Math.max(1, maxPages), MAX_OMDB_PAGES));
+        search.expected = Math.max(first.items.size(), Math.min(first.totalResults, last * PAGE_SIZE));
+        Semaphore permits = new Semaphore(Math.max(1, concurrency));
+        for (int p = 2; p <= last; p++) {
+            int page = p;
+            CompletableFuture<Page<T>> f = new CompletableFuture<>();
+            search.fetchers.add(Thread.ofVirtual().name("search-page-" + page).start(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        f.complete(fetcher.fetch(page));
+                    } finally {
+                        permits.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    f.complete(Page.empty());
+                } catch (Exception e) {
+                    System.out.println("[!] Skipping search page " + page + ": " + e.getMessage());
+                    f.complete(Page.empty());
+                }
+            }));
+            search.pages.add(f);
+        }
+        return search;
+    }
+
+    // Number of hits the search is expected to yield, before duplicates are removed
+    int expected() {
+        return expected;
+    }
+
+    // Calls action with every hit as the iterator hands it out; set before iterating
+    PagedSearch<T> peek(Consumer<? super T> action) {
+        onHit = action;
+        return this;
+    }
+
+    void cancel() {
+        for (Thread t : fetchers) {
+            t.interrupt();
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private final Set<String> seen = new HashSet<>();
+            private int pageIndex;
+            private Iterator<T> current = Collections.emptyIterator();
+            private T next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    if (current.hasNext()) {
+                        T candidate = current.next();
+                        String id = idOf.apply(candidate);
+                        if (id == null || seen.add(id)) {
+                            next = candidate;
+                        }
+                    } else if (pageIndex < pages.size()) {
+                        try {
+                            current = pages.get(pageIndex++).get().items.iterator();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            cancel();
+                            throw new CancellationException("Search cancelled");
+                        } catch (ExecutionException e) {
+                            // Page futures always complete normally; a failed page is already empty.
+                            current = Collections.emptyIterator();
+                        }
+                    } else {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T result = next;
+                next = null;
+                onHit.accept(result);
+                return result;
+            }
+        };
+    }
+}
@@ -0,0 +1,281 @@
+// PosterDownloads.java
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Latency policy for poster downloads, so one slow image host cannot hold up a report:
+//  - every image has a time budget (poster.timeout.ms), further capped by what is left of the
+//    report's poster budget (poster.report.budget.ms); an image out of budget is "No Img",
+//  - if the first request has not answered after the host's recent p95 download time, a second
+//    (hedged) request is sent and whichever succeeds first is used; the other is aborted,
+//  - a host that fails or runs out of budget poster.host.max.failures times in a row is marked
+//    down for poster.host.cooldown.seconds, and its posters skip straight to the placeholder.
+final class PosterDownloads {
+
+    interface Attempt {
+        HttpResponse<byte[]> send(Duration timeout) throws IOException, InterruptedException;
+    }
+
+    // Downloads seen before a host's own p95 replaces the configured hedge delay
+    private static final int MIN_SAMPLES = 20;
+    // The p95 follows the last WINDOW downloads of a host, not its whole history
+    private static final int WINDOW = 500;
+    private static final long MIN_HEDGE_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final Duration imageBudget;
+    private final Duration reportBudget;
+    private final boolean hedge;
+    private final Duration hedgeDelay;
+    private final int maxFailures;
+    private final Duration cooldown;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    PosterDownloads(Duration imageBudget, Duration reportBudget, boolean hedge, Duration hedgeDelay,
+                    int maxFailures, Duration cooldown) {
+        this.imageBudget = imageBudget;
+        this.reportBudget = reportBudget;
+        this.hedge = hedge;
+        this.hedgeDelay = hedgeDelay;
+        this.maxFailures = Math.max(1, maxFailures);
+        this.cooldown = cooldown;
+    }
+
+    static PosterDownloads open(Properties props) {
+        return new PosterDownloads(
+                Duration.ofMillis(Long.parseLong(props.getProperty("poster.timeout.ms", "20000"))),
+                Duration.ofMillis(Long.parseLong(props.getProperty("poster.report.budget.ms", "0"))),
+                Boolean.parseBoolean(props.getProperty("poster.hedge", "true")),
+                Duration.ofMillis(Long.parseLong(props.getProperty("poster.hedge.delay.ms", "1000"))),
+                Integer.parseInt(props.getProperty("poster.host.max.failures", "3")),
+                Duration.ofSeconds(Long.parseLong(props.getProperty("poster.host.cooldown.seconds", "300"))));
+    }
+
+    // System.nanoTime() by which a report started now must be done with posters; no limit if unset.
+    long reportDeadline() {
+        return reportBudget.isZero() ? Long.MAX_VALUE : System.nanoTime() + reportBudget.toNanos();
+    }
+
+    // Returns the body of the first 200 response, or null on failure, timeout or a skipped host.
+    byte[] fetch(String url, long reportDeadline, Attempt attempt) {
+        Metrics metrics = Metrics.current();
+        Host host = hosts.computeIfAbsent(hostOf(url), Host::new);
+        if (host.isDown()) {
+            metrics.count("posters.skipped.host");
+            return null;
+        }
+        long started = System.nanoTime();
+        long deadline = Math.min(reportDeadline, started + imageBudget.toNanos());
+        if (deadline - started <= 0) {
+            metrics.count("posters.skipped.budget");
+            return null;
+        }
+
+        Request primary = new Request(attempt, deadline - started);
+        Request hedged = null;
+        HttpResponse<byte[]> res = null;
+        boolean timedOut = false;
+        try {
+            long delay = host.hedgeDelayNanos();
+            if (hedge && delay < deadline - started) {
+                primary.awaitQuietly(delay);
+                if (!primary.isDone()) {
+                    hedged = new Request(attempt, deadline - System.nanoTime());
+                    metrics.count("posters.hedged");
+                }
+            }
+            res = firstOk(primary, hedged, deadline);
+            if (res != null && hedged != null && res == hedged.result()) {
+                metrics.count("posters.hedge.won");
+            }
+        } catch (TimeoutException e) {
+            timedOut = true;
+            metrics.count("posters.timeout");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            primary.abort();
+            if (hedged != null) {
+                hedged.abort();
+            }
+        }
+
+        long elapsed = System.nanoTime() - started;
+        metrics.timer("posters.download").record(elapsed);
+        if (res != null) {
+            metrics.add("bytes.posters", res.body().length);
+        }
+        if (res != null && res.statusCode() == 200) {
+            host.succeeded(elapsed);
+            return res.body();
+        }
+        // A 404 is a missing poster, not a sick host
+        if (timedOut || res == null || res.statusCode() == 429 || res.statusCode() >= 500) {
+            host.failed(maxFailures, cooldown);
+        }
+        metrics.count("posters.download.failed");
+        return null;
+    }
+
+    // Waits for the first 200 among the requests; otherwise the last answer, or null if both failed.
+    private static HttpResponse<byte[]> firstOk(Request a, Request b, long deadline)
+            throws InterruptedException, TimeoutException {
+        if (b == null) {
+            return a.awaitUntil(deadline);
+        }
+        try {
+            CompletableFuture.anyOf(a.done, b.done).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException ignored) {
+            // One of them failed; looked at below
+        }
+        Request first = a.isDone() ? a : b;
+        Request other = first == a ? b : a;
+        HttpResponse<byte[]> res = first.result();
+        if (res != null && res.statusCode() == 200) {
+            return res;
+        }
+        // The first to finish failed: the other one may still succeed
+        HttpResponse<byte[]> second = other.awaitUntil(deadline);
+        return second != null ? second : res;
+    }
+
+    private static String hostOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getHost() == null ? "" : uri.getHost() + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    // One download on its own virtual thread; interrupting it aborts the HTTP exchange.
+    private static final class Request {
+        final CompletableFuture<HttpResponse<byte[]>> done = new CompletableFuture<>();
+        private final Thread thread;
+
+        Request(Attempt attempt, long timeoutNanos) {
+            Duration timeout = Duration.ofNanos(Math.max(1, timeoutNanos));
+            thread = Thread.ofVirtual().name("poster-download").start(() -> {
+                try {
+                    done.complete(attempt.send(timeout));
+                } catch (Exception e) {
+                    done.completeExceptionally(e);
+                }
+            });
+        }
+
+        void awaitQuietly(long nanos) throws InterruptedException {
+            try {
+                done.get(nanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException ignored) {
+                // The caller checks isDone()
+            }
+        }
+
+        // The response, or null if the request failed
+        HttpResponse<byte[]> awaitUntil(long deadline) throws InterruptedException, TimeoutException {
+            try {
+                return done.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                return null;
+            }
+        }
+
+        boolean isDone() {
+            return done.isDone();
+        }
+
+        HttpResponse<byte[]> result() {
+            return done.isDone() && !done.isCompletedExceptionally() ? done.join() : null;
+        }
+
+        void abort() {
+            if (!done.isDone()) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    // Locks are ReentrantLocks rather than monitors so virtual threads do not pin carriers
+    private final class Host {
+        private final String name;
+        private final ReentrantLock lock = new ReentrantLock();
+        private Metrics.Histogram recent = new Metrics.Histogram();
+        private Metrics.Histogram previous;
+        private int failures;
+        private long downUntil;
+
+        Host(String name) {
+            this.name = name;
+        }
+
+        boolean isDown() {
+            lock.lock();
+            try {
+                return isDownLocked();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean isDownLocked() {
+            return downUntil != 0 && System.nanoTime() - downUntil < 0;
+        }
+
+        long hedgeDelayNanos() {
+            lock.lock();
+            try {
+                Metrics.Histogram h = recent.count() >= MIN_SAMPLES ? recent : previous;
+                if (h == null) {
+                    return hedgeDelay.toNanos();
+                }
+                return Math.max(MIN_HEDGE_NANOS, TimeUnit.MICROSECONDS.toNanos(h.percentile(0.95)));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void succeeded(long nanos) {
+            lock.lock();
+            try {
+                failures = 0;
+                recent.record(nanos);
+                if (recent.count() >= WINDOW) {
+                    previous = recent;
+                    recent = new Metrics.Histogram();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void failed(int maxFailures, Duration cooldown) {
+            boolean markedDown = false;
+            lock.lock();
+            try {
+                if (++failures >= maxFailures && !isDownLocked()) {
+                    downUntil = System.nanoTime() + cooldown.toNanos();
+                    failures = 0;
+                    markedDown = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            // Logged outside the lock: console output can block
+            if (markedDown) {
+                Metrics.current().count("posters.host.down");
+                System.out.println("[!] Poster host " + name + " marked down for " + cooldown.toSeconds()
+                        + " s after " + maxFailures + " failed downloads");
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+// PosterThumbnails.java
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+import java.util.function.Function;
+
+// Downsamples each poster once to the size it is drawn at in the table and re-encodes it as JPEG,
+// so the PDF embeds a small thumbnail instead of the full original. Results live in a
+// content-addressed directory: the file name is a hash of the poster URL and the encoding settings,
+// so a change of DPI or quality never serves a stale thumbnail.
+final class PosterThumbnails {
+
+    // Size of the poster cell in PDF points
+    static final float WIDTH_PT = 60f;
+    static final float HEIGHT_PT = 90f;
+
+    private final Path dir;
+    private final boolean enabled;
+    private final int dpi;
+    private final float quality;
+
+    PosterThumbnails(Path dir, boolean enabled, int dpi, float quality) {
+        this.dir = dir;
+        this.enabled = enabled;
+        this.dpi = dpi;
+        this.quality = quality;
+        if (enabled) {
+            try {
+                Files.createDirectories(dir);
+            } catch (IOException e) {
+                System.err.println("[!] Poster cache directory unavailable: " + dir + " (" + e.getMessage() + ")");
+            }
+        }
+    }
+
+    static PosterThumbnails open(Properties props) {
+        return new PosterThumbnails(
+                Path.of(props.getProperty("poster.cache.dir", ".poster-cache")),
+                Boolean.parseBoolean(props.getProperty("poster.thumbnails.enabled", "true")),
+                Integer.parseInt(props.getProperty("poster.dpi", "150")),
+                Float.parseFloat(props.getProperty("poster.jpeg.quality", "0.8")));
+    }
+
+    // Returns thumbnail bytes for the poster, downloading and transcoding it on a cache miss.
+    // Falls back to the downloaded original when it cannot be decoded; null when the download fails.
+    byte[] fetch(String url, Function<String, byte[]> download) {
+        if (!enabled) {
+            return download.apply(url);
+        }
+        Path file = fileFor(url);
+        Metrics metrics = Metrics.current();
+        try {
+            byte[] cached = Files.readAllBytes(file);
+            metrics.count("cache.thumbnail.hit");
+            return cached;
+        } catch (NoSuchFileException ignored) {
+        } catch (IOException e) {
+            // Unreadable entry: rebuild it below.
+        }
+        metrics.count("cache.thumbnail.miss");
+
+        byte[] original = download.apply(url);
+        if (original == null) {
+            return null;
+        }
+        long started = System.nanoTime();
+        byte[] thumb = transcode(original);
+        metrics.time("posters.transcode", started);
+        if (thumb == null) {
+            return original;
+        }
+        store(file, thumb);
+        return thumb;
+    }
+
+    // The cached thumbnail of the poster, or null when there is none
+    Path cachedFile(String url) {
+        if (!enabled) {
+            return null;
+        }
+        Path file = fileFor(url);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    private Path fileFor(String url) {
+        return dir.resolve(sha256(url + "|" + dpi + "|" + quality) + ".jpg");
+    }
+
+    private byte[] transcode(byte[] original) {
+        try {
+            BufferedImage src = ImageIO.read(new ByteArrayInputStream(original));
+            if (src == null) {
+                return null;
+            }
+            int maxW = Math.round(WIDTH_PT * dpi / 72f);
+            int maxH = Math.round(HEIGHT_PT * dpi / 72f);
+            double scale = Math.min(1.0, Math.min((double) maxW / src.getWidth(), (double) maxH / src.getHeight()));
+            int w = Math.max(1, (int) Math.round(src.getWidth() * scale));
+            int h = Math.max(1, (int) Math.round(src.getHeight() * scale));
+
+            BufferedImage dst = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = dst.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(src, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (ImageOutputStream ios = ImageIO.createImageOutputStream(bos)) {
+                writer.setOutput(ios);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                writer.write(null, new IIOImage(dst, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            byte[] thumb = bos.toByteArray();
+            return thumb.length < original.length ? thumb : original;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void store(Path file, byte[] data) {
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(dir, "thumb-", ".tmp");
+            Files.write(tmp, data);
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        } catch (IOException e) {
+            System.err.println("[!] Poster cache write failed: " + e.getMessage());
+        } finally {
+            if (tmp != null) {
+                try { Files.deleteIfExists(tmp); } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    private static String sha256(String s) {
+        return sha256(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Hex SHA-256 of the bytes: cache file names, and the identity of a poster's content
+    static String sha256(byte[] bytes) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
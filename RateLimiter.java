@@ -0,0 +1,321 @@
+// RateLimiter.java
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Shared gate in front of every OMDb and poster request. Each host gets:
+//  - a token bucket (rate requests/sec, up to burst tokens banked),
+//  - an AIMD concurrency limit: +1/limit per healthy response, halved (at most once a second) on
+//    429, 5xx, I/O errors or responses slower than the latency threshold,
+//  - retries with jittered exponential backoff; a Retry-After header pauses the whole host (for at
+//    most the maximum backoff).
+// Locks are ReentrantLocks rather than monitors so waiting virtual threads do not pin carriers.
+final class RateLimiter {
+
+    static final class HostStats {
+        final String host;
+        final long requests;
+        final long retries;
+        final long throttled;
+        final long serverErrors;
+        final long failures;
+        final double concurrencyLimit;
+        final long avgLatencyMs;
+        final long maxLatencyMs;
+
+        HostStats(String host, long requests, long retries, long throttled, long serverErrors, long failures,
+                  double concurrencyLimit, long avgLatencyMs, long maxLatencyMs) {
+            this.host = host;
+            this.requests = requests;
+            this.retries = retries;
+            this.throttled = throttled;
+            this.serverErrors = serverErrors;
+            this.failures = failures;
+            this.concurrencyLimit = concurrencyLimit;
+            this.avgLatencyMs = avgLatencyMs;
+            this.maxLatencyMs = maxLatencyMs;
+        }
+
+        @Override
+        public String toString() {
+            return host + ": " + requests + " requests, " + retries + " retries, " + throttled + " throttled, "
+                    + serverErrors + " 5xx, " + failures + " I/O failures, concurrency limit "
+                    + String.format("%.1f", concurrencyLimit) + ", latency avg " + avgLatencyMs + " ms / max " + maxLatencyMs + " ms";
+        }
+    }
+
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double ratePerSec;
+    private final int burst;
+    private final int initialConcurrency;
+    private final int maxConcurrency;
+    private final long latencySpikeNanos;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    RateLimiter(double ratePerSec, int burst, int initialConcurrency, int maxConcurrency,
+                Duration latencySpike, Duration backoffBase, Duration backoffMax) {
+        this.ratePerSec = ratePerSec;
+        this.burst = Math.max(1, burst);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.initialConcurrency = Math.max(1, Math.min(initialConcurrency, this.maxConcurrency));
+        this.latencySpikeNanos = latencySpike.toNanos();
+        this.backoffBaseMs = backoffBase.toMillis();
+        this.backoffMaxMs = backoffMax.toMillis();
+    }
+
+    static RateLimiter open(Properties props) {
+        double rate = Double.parseDouble(props.getProperty("limiter.rate", "10"));
+        // Tokens would never refill, and every request would wait forever
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("limiter.rate must be positive: " + rate);
+        }
+        return new RateLimiter(
+                rate,
+                Integer.parseInt(props.getProperty("limiter.burst", "10")),
+                Integer.parseInt(props.getProperty("limiter.initial.concurrency", "4")),
+                Integer.parseInt(props.getProperty("limiter.max.concurrency", "8")),
+                Duration.ofMillis(Long.parseLong(props.getProperty("limiter.latency.spike.ms", "5000"))),
+                Duration.ofMillis(Long.parseLong(props.getProperty("retry.base.ms", "250"))),
+                Duration.ofMillis(Long.parseLong(props.getProperty("retry.max.ms", "10000"))));
+    }
+
+    // Sends through the host's gate, retrying 429, 5xx and I/O errors up to attempts times in total.
+    // Any other response is returned as is; after the last attempt the last response or error is.
+    <T> HttpResponse<T> send(HttpClient client, HttpRequest req, HttpResponse.BodyHandler<T> handler, int attempts)
+            throws IOException, InterruptedException {
+        Host host = hosts.computeIfAbsent(hostOf(req.uri()), Host::new);
+        for (int attempt = 1; ; attempt++) {
+            host.acquire();
+            long started = System.nanoTime();
+            HttpResponse<T> res = null;
+            IOException error = null;
+            boolean cancelled = false;
+            try {
+                res = client.send(req, handler);
+            } catch (IOException e) {
+                error = e;
+                // An I/O error raised by the interrupt itself is a cancellation too
+                cancelled = Thread.currentThread().isInterrupted();
+            } catch (InterruptedException e) {
+                // Aborted by the caller (a cancelled report, a hedge that lost): says nothing about the host
+                cancelled = true;
+                throw e;
+            } finally {
+                if (cancelled) {
+                    host.cancel();
+                } else {
+                    int status = res == null ? -1 : res.statusCode();
+                    host.release(status, System.nanoTime() - started);
+                    record(status, started);
+                }
+            }
+            if (cancelled) {
+                throw error;
+            }
+
+            if (error == null && !retryable(res.statusCode())) {
+                return res;
+            }
+            if (attempt >= attempts) {
+                if (error != null) {
+                    throw error;
+                }
+                return res;
+            }
+
+            if (res != null && res.body() instanceof InputStream body) {
+                // Streamed bodies of discarded attempts must be closed to free the connection
+                body.close();
+            }
+            long delay = backoffMs(attempt);
+            Optional<Long> retryAfter = res == null ? Optional.empty() : retryAfterMs(res);
+            if (retryAfter.isPresent()) {
+                // Capped like our own backoff: one "Retry-After: 3600" must not park the host for an hour
+                long pause = Math.min(retryAfter.get(), backoffMaxMs);
+                delay = Math.max(delay, pause);
+                host.pauseFor(pause);
+            }
+            host.countRetry();
+            Metrics.current().count("http.retries");
+            Thread.sleep(delay);
+        }
+    }
+
+    List<HostStats> stats() {
+        List<HostStats> out = new ArrayList<>();
+        for (Host h : hosts.values()) {
+            out.add(h.snapshot());
+        }
+        return out;
+    }
+
+    private static void record(int status, long startedNanos) {
+        Metrics metrics = Metrics.current();
+        metrics.time("http.request", startedNanos);
+        if (status == 429) metrics.count("http.throttled");
+        else if (status >= 500) metrics.count("http.server_errors");
+        else if (status < 0) metrics.count("http.io_failures");
+    }
+
+    private static boolean retryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    // "Equal jitter": half the exponential step is fixed, the other half random.
+    private long backoffMs(int attempt) {
+        long step = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+        return step / 2 + ThreadLocalRandom.current().nextLong(step / 2 + 1);
+    }
+
+    private static Optional<Long> retryAfterMs(HttpResponse<?> res) {
+        Optional<String> header = res.headers().firstValue("Retry-After");
+        if (header.isEmpty()) {
+            return Optional.empty();
+        }
+        String value = header.get().trim();
+        try {
+            return Optional.of(Math.max(0, Math.min(Long.parseLong(value), Long.MAX_VALUE / 1000)) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Optional.of(Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis()));
+            } catch (Exception ignored) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static String hostOf(URI uri) {
+        return uri.getHost() == null ? "" : uri.getHost() + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+    }
+
+    private final class Host {
+        private final String name;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+
+        private double tokens = burst;
+        private long lastRefill = System.nanoTime();
+        private long pausedUntil;
+        private double limit = initialConcurrency;
+        private int inFlight;
+        private long lastDecrease;
+
+        private long requests, retries, throttled, serverErrors, failures, latencyTotal, latencyMax;
+
+        Host(String name) {
+            this.name = name;
+        }
+
+        void acquire() throws InterruptedException {
+            lock.lock();
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    if (now < pausedUntil) {
+                        changed.awaitNanos(pausedUntil - now);
+                    } else if (inFlight >= (int) limit) {
+                        changed.await();
+                    } else {
+                        tokens = Math.min(burst, tokens + (now - lastRefill) / 1e9 * ratePerSec);
+                        lastRefill = now;
+                        if (tokens >= 1) {
+                            tokens -= 1;
+                            inFlight++;
+                            return;
+                        }
+                        changed.awaitNanos((long) ((1 - tokens) / ratePerSec * 1e9));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(int status, long latencyNanos) {
+            lock.lock();
+            try {
+                inFlight--;
+                requests++;
+                latencyTotal += latencyNanos;
+                latencyMax = Math.max(latencyMax, latencyNanos);
+                if (status == 429) throttled++;
+                else if (status >= 500) serverErrors++;
+                else if (status < 0) failures++;
+
+                boolean congested = status == 429 || status >= 500 || status < 0 || latencyNanos > latencySpikeNanos;
+                long now = System.nanoTime();
+                if (congested) {
+                    if (now - lastDecrease > DECREASE_COOLDOWN_NANOS) {
+                        limit = Math.max(1, limit / 2);
+                        lastDecrease = now;
+                    }
+                } else {
+                    limit = Math.min(maxConcurrency, limit + 1 / limit);
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Frees the slot of an aborted request without counting it or adjusting the limit
+        void cancel() {
+            lock.lock();
+            try {
+                inFlight--;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void pauseFor(long millis) {
+            lock.lock();
+            try {
+                pausedUntil = Math.max(pausedUntil, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void countRetry() {
+            lock.lock();
+            try {
+                retries++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        HostStats snapshot() {
+            lock.lock();
+            try {
+                long avg = requests == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(latencyTotal / requests);
+                return new HostStats(name, requests, retries, throttled, serverErrors, failures, limit,
+                        avg, TimeUnit.NANOSECONDS.toMillis(latencyMax));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
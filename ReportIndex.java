@@ -0,0 +1,131 @@
+// ReportIndex.java
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sidecar of a report PDF ("<report>.index") listing the imdbIDs already rendered into it, each
+// with a fingerprint of its search entry (title, year, type, poster), so a delta run can tell new
+// and changed titles from the ones the report already shows. The first line records the query
+// and year; an index written for a different search is ignored.
+final class ReportIndex {
+
+    enum Status { NEW, CHANGED, SAME }
+
+    private static final String HEADER = "# report-index v2";
+
+    private final String query;
+    private final String year;
+    private final Map<String, String> fingerprints = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    ReportIndex(String query, String year) {
+        this.query = normalize(query);
+        this.year = normalize(year);
+    }
+
+    static Path sidecar(Path report) {
+        return report.resolveSibling(report.getFileName() + ".index");
+    }
+
+    // Returns the index, or null when it is missing, unreadable or was written for another search.
+    static ReportIndex read(Path file, String query, String year) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("[!] Report index unreadable: " + file + " (" + e.getMessage() + ")");
+            return null;
+        }
+        ReportIndex index = new ReportIndex(query, year);
+        if (lines.size() < 2 || !HEADER.equals(lines.get(0)) || !index.searchLine().equals(lines.get(1))) {
+            return null;
+        }
+        for (String line : lines.subList(2, lines.size())) {
+            int tab = line.indexOf('\t');
+            if (tab > 0) {
+                index.fingerprints.put(line.substring(0, tab), line.substring(tab + 1));
+            }
+        }
+        return index;
+    }
+
+    Status status(LatestMoviesToPdf.Movie hit) {
+        String known = fingerprints.get(hit.imdbID);
+        if (known == null) {
+            return Status.NEW;
+        }
+        return known.equals(fingerprint(hit)) ? Status.SAME : Status.CHANGED;
+    }
+
+    void put(LatestMoviesToPdf.Movie hit) {
+        if (hit.imdbID != null) {
+            fingerprints.put(hit.imdbID, fingerprint(hit));
+        }
+    }
+
+    int size() {
+        return fingerprints.size();
+    }
+
+    // Written next to the report and moved into place, like the report itself
+    void write(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            w.write(HEADER);
+            w.newLine();
+            w.write(searchLine());
+            w.newLine();
+            synchronized (fingerprints) {
+                for (Map.Entry<String, String> e : fingerprints.entrySet()) {
+                    w.write(e.getKey() + "\t" + e.getValue());
+                    w.newLine();
+                }
+            }
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private String searchLine() {
+        return "query=" + query + "\tyear=" + year;
+    }
+
+    // Only what the search returns: a delta run must decide without fetching details. Each field
+    // is length-prefixed (null as "-"), so no two different entries hash the same input.
+    private static String fingerprint(LatestMoviesToPdf.Movie hit) {
+        StringBuilder sb = new StringBuilder();
+        for (String field : new String[] {hit.Title, hit.Year, hit.Type, hit.Poster}) {
+            sb.append(field == null ? "-" : field.length() + ":" + field).append('|');
+        }
+        return sha256(sb.toString());
+    }
+
+    private static String sha256(String s) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String normalize(String s) {
+        return s == null ? "" : s.trim().replaceAll("\\s+", " ");
+    }
+}
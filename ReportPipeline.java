@@ -0,0 +1,188 @@
+// ReportPipeline.java
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+// Search -> detail lookup -> poster download, each stage feeding the next through a bounded queue.
+// Queues hold futures in search order, so the consumer sees rows in a deterministic order while
+// later lookups are still in flight. A full queue blocks the stage in front of it, which caps the
+// number of rows held in memory at roughly three times the queue size. Closing the pipeline
+// cancels a PagedSearch explicitly: a search stage blocked on a full queue never gets back to the
+// search's own iterator to notice it was interrupted, and its page fetchers would keep running.
+final class ReportPipeline implements Iterable<ReportPipeline.Row>, AutoCloseable {
+
+    static final class Row {
+        final LatestMoviesToPdf.Movie movie;
+        final byte[] poster;
+        // SHA-256 of poster, computed here on the poster stage rather than by the renderer
+        final String posterDigest;
+
+        Row(LatestMoviesToPdf.Movie movie, byte[] poster) {
+            this.movie = movie;
+            this.poster = poster;
+            this.posterDigest = poster == null ? null : PosterThumbnails.sha256(poster);
+        }
+    }
+
+    private static final CompletableFuture<?> END = CompletableFuture.completedFuture(null);
+
+    private final Function<LatestMoviesToPdf.Movie, LatestMoviesToPdf.Movie> enrich;
+    private final Function<String, byte[]> posterFetch;
+    private final ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final BlockingQueue<CompletableFuture<?>> hits;
+    private final BlockingQueue<CompletableFuture<?>> details;
+    private final BlockingQueue<CompletableFuture<?>> rows;
+
+    private final Thread searchStage;
+    private final Thread detailStage;
+    private final Thread posterStage;
+    private volatile Iterable<? extends LatestMoviesToPdf.Movie> searchResults;
+    private volatile boolean closed;
+
+    ReportPipeline(int queueSize,
+                   Callable<? extends Iterable<LatestMoviesToPdf.Movie>> search,
+                   Function<LatestMoviesToPdf.Movie, LatestMoviesToPdf.Movie> enrich,
+                   Function<String, byte[]> posterFetch) {
+        int capacity = Math.max(1, queueSize);
+        this.enrich = enrich;
+        this.posterFetch = posterFetch;
+        this.hits = new ArrayBlockingQueue<>(capacity);
+        this.details = new ArrayBlockingQueue<>(capacity);
+        this.rows = new ArrayBlockingQueue<>(capacity);
+        this.searchStage = Thread.ofVirtual().name("pipeline-search").start(() -> runSearchStage(search));
+        this.detailStage = Thread.ofVirtual().name("pipeline-details").start(this::runDetailStage);
+        this.posterStage = Thread.ofVirtual().name("pipeline-posters").start(this::runPosterStage);
+    }
+
+    // A search failure travels down the queues as a failed future, so the consumer rethrows it
+    // after the rows that were already produced.
+    private void runSearchStage(Callable<? extends Iterable<LatestMoviesToPdf.Movie>> search) {
+        try {
+            try {
+                searchResults = search.call();
+                if (closed) {
+                    cancel(searchResults);
+                }
+                for (LatestMoviesToPdf.Movie hit : searchResults) {
+                    hits.put(CompletableFuture.completedFuture(hit));
+                }
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                hits.put(CompletableFuture.failedFuture(e));
+            }
+            hits.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runDetailStage() {
+        try {
+            while (true) {
+                CompletableFuture<?> hit = hits.take();
+                if (hit == END) {
+                    details.put(END);
+                    return;
+                }
+                details.put(hit.thenApplyAsync(m -> {
+                    LatestMoviesToPdf.Movie basic = (LatestMoviesToPdf.Movie) m;
+                    try {
+                        return enrich.apply(basic);
+                    } catch (RuntimeException e) {
+                        return basic;
+                    }
+                }, pool));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runPosterStage() {
+        try {
+            while (true) {
+                CompletableFuture<?> detail = details.take();
+                if (detail == END) {
+                    rows.put(END);
+                    return;
+                }
+                rows.put(detail.thenApplyAsync(m -> {
+                    LatestMoviesToPdf.Movie movie = (LatestMoviesToPdf.Movie) m;
+                    byte[] poster = null;
+                    if (movie.Poster != null && !"N/A".equalsIgnoreCase(movie.Poster)) {
+                        try {
+                            poster = posterFetch.apply(movie.Poster);
+                        } catch (RuntimeException ignored) {}
+                    }
+                    return new Row(movie, poster);
+                }, pool));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public Iterator<Row> iterator() {
+        return new Iterator<>() {
+            private CompletableFuture<?> next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = rows.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CompletionException(e);
+                    }
+                }
+                return next != END;
+            }
+
+            @Override
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                CompletableFuture<?> current = next;
+                next = null;
+                try {
+                    return (Row) current.get();
+                } catch (InterruptedException e) {
+                    // Waiting on a row must stay interruptible so a cancelled report stops at once
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                } catch (ExecutionException e) {
+                    throw new CompletionException(e.getCause());
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        cancel(searchResults);
+        searchStage.interrupt();
+        detailStage.interrupt();
+        posterStage.interrupt();
+        pool.shutdownNow();
+    }
+
+    private static void cancel(Iterable<?> results) {
+        if (results instanceof PagedSearch<?> paged) {
+            paged.cancel();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+// CreatePdfBenchmark.java
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+// A whole report written by createPdf on one thread: cover, table, footers, close. The rows are
+// synthetic enriched movies (seven distinct posters shared round robin), already in memory, so
+// nothing but rendering is measured; the file goes to a temporary directory.
+//
+//   java -jar benchmarks.jar CreatePdf -p rows=10000 -p profile=compact -p flushRows=500
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CreatePdfBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int rows;
+
+    // pdf.profile: standard or compact
+    @Param({"standard"})
+    public String profile;
+
+    // pdf.flush.rows: 0 lays the whole table out at close
+    @Param({"0"})
+    public int flushRows;
+
+    private List<?> data;
+    private Path out;
+
+    @Setup
+    public void setUp() throws Throwable {
+        data = Engine.syntheticRows(rows);
+        out = Files.createTempFile("create-pdf-bench-", ".pdf");
+        Properties output = new Properties();
+        output.setProperty("pdf.profile", profile);
+        Engine.CONFIGURE_OUTPUT.invoke(output);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(out);
+    }
+
+    @Benchmark
+    public int createPdf() throws Throwable {
+        return (int) Engine.CREATE_PDF.invoke(out.toString(), data, "bench", flushRows, Engine.NO_PROGRESS);
+    }
+}
@@ -0,0 +1,128 @@
+// Engine.java
+package bench;
+
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Table;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Properties;
+
+// Handles on the engine's internals. The engine lives in the default package, which cannot be
+// imported from a named one (and JMH only generates code for benchmarks in a named package); most
+// of what is measured is private too. The handles are constants, so the JIT inlines calls through
+// them like direct ones.
+final class Engine {
+
+    static final Class<?> TO_PDF = type("LatestMoviesToPdf");
+    static final Class<?> MOVIE = type("LatestMoviesToPdf$Movie");
+    static final Class<?> SEARCH_RESULT = type("LatestMoviesToPdf$SearchResult");
+    static final Class<?> ROW = type("ReportPipeline$Row");
+    static final Class<?> LISTENER = type("LatestMoviesToPdf$ProgressListener");
+    static final Class<?> FOOTER = type("LatestMoviesToPdf$FooterEventHandler");
+    static final Class<?> POSTER_IMAGES = type("LatestMoviesToPdf$PosterImages");
+
+    // OmdbJson.readSearch(InputStream), OmdbJson.readMovie(InputStream)
+    static final MethodHandle READ_SEARCH = method(type("OmdbJson"), "readSearch", SEARCH_RESULT, InputStream.class);
+    static final MethodHandle READ_MOVIE = method(type("OmdbJson"), "readMovie", MOVIE, InputStream.class);
+
+    // LatestMoviesToPdf.safe(String), ratingCell(String, PdfFont), addRow(Table, Row, PosterImages, PdfFont),
+    // new PosterImages(PdfDocument)
+    static final MethodHandle SAFE = method(TO_PDF, "safe", String.class, String.class);
+    static final MethodHandle RATING_CELL = method(TO_PDF, "ratingCell", Cell.class, String.class, PdfFont.class);
+    static final MethodHandle ADD_ROW = method(TO_PDF, "addRow", void.class,
+            Table.class, ROW, POSTER_IMAGES, PdfFont.class);
+    static final MethodHandle NEW_POSTER_IMAGES = constructor(POSTER_IMAGES, PdfDocument.class);
+
+    // LatestMoviesToPdf.createPdf(out, rows, query, flushRows, listener), configureOutput(Properties)
+    static final MethodHandle CREATE_PDF = method(TO_PDF, "createPdf", int.class,
+            String.class, Iterable.class, String.class, int.class, LISTENER);
+    static final MethodHandle CONFIGURE_OUTPUT = method(TO_PDF, "configureOutput", void.class, Properties.class);
+    static final Object NO_PROGRESS = field(LISTENER, "NONE");
+
+    // new FooterEventHandler(PdfFont), renderFooter(PdfDocument, Rectangle), stamp(PdfDocument, PdfPage)
+    static final MethodHandle NEW_FOOTER = constructor(FOOTER, PdfFont.class);
+    static final MethodHandle RENDER_FOOTER = virtual(FOOTER, "renderFooter", PdfFormXObject.class,
+            PdfDocument.class, Rectangle.class);
+    static final MethodHandle STAMP_FOOTER = virtual(FOOTER, "stamp", void.class,
+            PdfDocument.class, PdfPage.class);
+
+    // LatestMoviesRenderBench.syntheticRows(int): rows shaped like enriched OMDb records
+    private static final MethodHandle SYNTHETIC_ROWS = method(type("LatestMoviesRenderBench"), "syntheticRows", List.class, int.class);
+
+    private Engine() {}
+
+    static List<?> syntheticRows(int n) {
+        try {
+            return (List<?>) SYNTHETIC_ROWS.invoke(n);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Could not build synthetic rows", t);
+        }
+    }
+
+    // A font as the engine makes them: one per document, WinAnsi encoded
+    static PdfFont font(boolean bold) {
+        try {
+            return PdfFontFactory.createFont(bold ? StandardFonts.HELVETICA_BOLD : StandardFonts.HELVETICA, PdfEncodings.WINANSI);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> owner) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+    }
+
+    private static MethodHandle method(Class<?> owner, String name, Class<?> returns, Class<?>... params) {
+        try {
+            return lookup(owner).findStatic(owner, name, MethodType.methodType(returns, params));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle virtual(Class<?> owner, String name, Class<?> returns, Class<?>... params) {
+        try {
+            return lookup(owner).findVirtual(owner, name, MethodType.methodType(returns, params));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> owner, Class<?>... params) {
+        try {
+            return lookup(owner).findConstructor(owner, MethodType.methodType(void.class, params));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static Object field(Class<?> owner, String name) {
+        try {
+            return lookup(owner).findStaticVarHandle(owner, name, owner).get();
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+// FooterBenchmark.java
+package bench;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// The page footer: laying out the rating scale and signature (once per document), and stamping
+// the laid out footer on a page (once per page). blankPage is the cost of adding and flushing a
+// page without a footer, to subtract from stamp. Layout takes long to reach steady state (a lot of
+// iText code to compile), hence the longer warm-up.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FooterBenchmark {
+
+    private PdfDocument pdf;
+    private Object footer;
+
+    // A document per iteration, written nowhere, so the pages stamped do not pile up across the run
+    @Setup(Level.Iteration)
+    public void setUp() throws Throwable {
+        pdf = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()));
+        pdf.setDefaultPageSize(PageSize.A4);
+        PdfFont regular = Engine.font(false);
+        footer = Engine.NEW_FOOTER.invoke(regular);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (pdf.getNumberOfPages() == 0) {
+            pdf.addNewPage();
+        }
+        pdf.close();
+    }
+
+    @Benchmark
+    public Object layout() throws Throwable {
+        return Engine.RENDER_FOOTER.invoke(footer, pdf, PageSize.A4);
+    }
+
+    @Benchmark
+    public void stamp() throws Throwable {
+        PdfPage page = pdf.addNewPage();
+        Engine.STAMP_FOOTER.invoke(footer, pdf, page);
+        page.flush();
+    }
+
+    @Benchmark
+    public void blankPage() {
+        pdf.addNewPage().flush();
+    }
+}
@@ -0,0 +1,89 @@
+// JsonDecodeBenchmark.java
+package bench;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Decoding of OMDb responses as the engine reads them, from the raw response bytes: a search page
+// (10 results) and a detail record with every field OMDb sends, most of which are skipped. The
+// *Old variants decode the way the engine used to, for comparison: the body as a String, bound by
+// reflection through a new Gson per response. Time alone undersells the difference; run with the
+// GC profiler and compare gc.alloc.rate.norm (bytes/op):
+//
+//   java -jar benchmarks.jar JsonDecode -prof gc
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonDecodeBenchmark {
+
+    private byte[] search;
+    private byte[] detail;
+
+    @Setup
+    public void setUp() {
+        StringBuilder page = new StringBuilder("{\"Search\":[");
+        for (int i = 0; i < 10; i++) {
+            if (i > 0) {
+                page.append(',');
+            }
+            page.append("{\"Title\":\"Batman: The Animated Series Part ").append(i)
+                    .append("\",\"Year\":\"").append(1992 + i)
+                    .append("\",\"imdbID\":\"tt").append(String.format("%07d", 103359 + i))
+                    .append("\",\"Type\":\"movie\",\"Poster\":\"https://m.media-amazon.com/images/M/MV5BNzY3OWQ5ZDktZjY3My00YzY0LWE0NjctYjQ1ZTI5ODk3OTg4XkEyXkFqcGc@._V1_SX300.jpg\"}");
+        }
+        page.append("],\"totalResults\":\"573\",\"Response\":\"True\"}");
+        search = page.toString().getBytes(StandardCharsets.UTF_8);
+
+        detail = ("{\"Title\":\"Batman Begins\",\"Year\":\"2005\",\"Rated\":\"PG-13\",\"Released\":\"15 Jun 2005\","
+                + "\"Runtime\":\"140 min\",\"Genre\":\"Action, Crime, Drama\",\"Director\":\"Christopher Nolan\","
+                + "\"Writer\":\"Bob Kane, David S. Goyer, Christopher Nolan\","
+                + "\"Actors\":\"Christian Bale, Michael Caine, Ken Watanabe\","
+                + "\"Plot\":\"When his parents are killed, billionaire playboy Bruce Wayne relocates to Asia, where he is mentored "
+                + "by Henri Ducard and Ra's Al Ghul in how to fight evil. When learning about the plan to wipe out evil in Gotham "
+                + "City by Ducard, Bruce prevents this plan from getting any further and heads back to his home.\","
+                + "\"Language\":\"English, Mandarin\",\"Country\":\"United States, United Kingdom\","
+                + "\"Awards\":\"Nominated for 1 Oscar. 14 wins & 79 nominations total\","
+                + "\"Poster\":\"https://m.media-amazon.com/images/M/MV5BODIyMDdhNTgtNDlmOC00MjUxLWE2NDItODA5MTdkNzY3ZTdhXkEyXkFqcGc@._V1_SX300.jpg\","
+                + "\"Ratings\":[{\"Source\":\"Internet Movie Database\",\"Value\":\"8.2/10\"},"
+                + "{\"Source\":\"Rotten Tomatoes\",\"Value\":\"85%\"},{\"Source\":\"Metacritic\",\"Value\":\"70/100\"}],"
+                + "\"Metascore\":\"70\",\"imdbRating\":\"8.2\",\"imdbVotes\":\"1,650,000\",\"imdbID\":\"tt0372784\","
+                + "\"Type\":\"movie\",\"DVD\":\"N/A\",\"BoxOffice\":\"$206,863,479\",\"Production\":\"N/A\","
+                + "\"Website\":\"N/A\",\"Response\":\"True\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object searchPage() throws Throwable {
+        return Engine.READ_SEARCH.invoke(new ByteArrayInputStream(search));
+    }
+
+    @Benchmark
+    public Object details() throws Throwable {
+        return Engine.READ_MOVIE.invoke(new ByteArrayInputStream(detail));
+    }
+
+    @Benchmark
+    public Object searchPageOld() {
+        return new Gson().fromJson(new String(search, StandardCharsets.UTF_8), Engine.SEARCH_RESULT);
+    }
+
+    @Benchmark
+    public Object detailsOld() {
+        return new Gson().fromJson(new String(detail, StandardCharsets.UTF_8), Engine.MOVIE);
+    }
+}
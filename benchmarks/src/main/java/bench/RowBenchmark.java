@@ -0,0 +1,75 @@
+// RowBenchmark.java
+package bench;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.element.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// Building the cells of the table, before any layout: ratingCell() for each colour band, and a
+// whole row (twelve cells) into a fresh table. The row's poster is already an image XObject of
+// the document, as it is for every row but the first to use an image.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Rating {
+        // Red, orange, green and grey (no rating) cells
+        @Param({"3.4", "6.1", "8.2", "N/A"})
+        public String value;
+    }
+
+    private PdfFont regular;
+    private Object row;
+    private PdfDocument pdf;
+    private Object posters;
+
+    @Setup
+    public void setUp() throws Throwable {
+        regular = Engine.font(false);
+        row = Engine.syntheticRows(1).get(0);
+        // The poster images belong to a document, written nowhere
+        pdf = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()));
+        posters = Engine.NEW_POSTER_IMAGES.invoke(pdf);
+        // Decodes the poster once, like the first row using it in a report
+        Engine.ADD_ROW.invoke(new Table(12), row, posters, regular);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pdf.addNewPage();
+        pdf.close();
+    }
+
+    @Benchmark
+    public Object ratingCell(Rating rating) throws Throwable {
+        return Engine.RATING_CELL.invoke(rating.value, regular);
+    }
+
+    @Benchmark
+    public Table row() throws Throwable {
+        Table table = new Table(12);
+        Engine.ADD_ROW.invoke(table, row, posters, regular);
+        return table;
+    }
+}
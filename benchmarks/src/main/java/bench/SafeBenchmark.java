@@ -0,0 +1,47 @@
+// SafeBenchmark.java
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// safe(), which every text cell of every row goes through (eleven calls per row): a typical
+// clean field, a long one, and one with control characters to replace.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SafeBenchmark {
+
+    @Param({"clean", "long", "control"})
+    public String input;
+
+    private String value;
+
+    @Setup
+    public void setUp() {
+        value = switch (input) {
+            case "clean" -> "Action, Adventure, Drama";
+            case "long" -> "Christian Bale, Michael Caine, Ken Watanabe, Liam Neeson, Katie Holmes, Gary Oldman, Cillian Murphy";
+            case "control" -> " The\tDark\nKnight\r Rises\u0007 ";
+            default -> throw new IllegalArgumentException("Unknown input: " + input);
+        };
+    }
+
+    @Benchmark
+    public String safe() throws Throwable {
+        return (String) Engine.SAFE.invoke(value);
+    }
+}